@@ -0,0 +1,129 @@
+package com.mychess.my_chess_backend.benchmarks;
+
+import com.mychess.my_chess_backend.dtos.shared.Move;
+import com.mychess.my_chess_backend.dtos.shared.MoveDetails;
+import com.mychess.my_chess_backend.dtos.shared.Piece;
+import com.mychess.my_chess_backend.dtos.shared.Position;
+import com.mychess.my_chess_backend.utils.BitBoard;
+import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
+import com.mychess.my_chess_backend.utils.FenUtils;
+import com.mychess.my_chess_backend.utils.MoveUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The legacy List&lt;Piece&gt; {@link MoveUtils} move handling next to the {@link BitBoard} equivalent,
+ * and the packed capture counters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ChessCoreBenchmark {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String PROMOTION = "7k/P7/8/8/8/8/8/K7 w - - 0 1";
+
+    private final BitBoard kiwipete = BitBoard.fromFen(KIWIPETE);
+    private final BitBoard promotion = BitBoard.fromFen(PROMOTION);
+    private final BitBoard scratch = new BitBoard();
+
+    private List<Piece> kiwipetePieces;
+    private List<Piece> promotionPieces;
+    private Move captureMove;
+    private Move promotionMove;
+    private long captured;
+
+    @Setup
+    public void setUp() {
+        kiwipetePieces = FenUtils.parseFenToPieces(KIWIPETE);
+        promotionPieces = FenUtils.parseFenToPieces(PROMOTION);
+
+        // Ne5xf7
+        captureMove = new Move()
+            .setPiece(find(kiwipetePieces, 3, 4))
+            .setTo(new Position((byte) 1, (byte) 5))
+            .setMoveDetails(new MoveDetails().setTargetPiece(find(kiwipetePieces, 1, 5)));
+
+        // a7-a8=Q
+        Piece pawn = find(promotionPieces, 1, 0);
+        promotionMove = new Move()
+            .setPiece(pawn)
+            .setTo(new Position((byte) 0, (byte) 0))
+            .setMoveDetails(new MoveDetails()
+                .setPromotion(true)
+                .setPromotedPiece(pawn.toBuilder().id("w-queen-0-0").type("queen").build()));
+    }
+
+    /**
+     * Legacy castling moves the rook Piece in place, so it needs a fresh list for every call.
+     */
+    @State(Scope.Thread)
+    public static class CastlingState {
+        List<Piece> pieces;
+        Move move;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            pieces = FenUtils.parseFenToPieces(KIWIPETE);
+            Piece king = find(pieces, 7, 4).toBuilder().row((byte) 7).build();
+            move = new Move()
+                .setPiece(king)
+                .setTo(new Position((byte) 7, (byte) 6))
+                .setMoveDetails(new MoveDetails().setCastling("kingside"));
+        }
+    }
+
+    @Benchmark
+    public List<Piece> legacyCapture() {
+        return MoveUtils.handleMove(kiwipetePieces, captureMove);
+    }
+
+    @Benchmark
+    public List<Piece> legacyCastling(CastlingState state) {
+        return MoveUtils.handleMove(state.pieces, state.move);
+    }
+
+    @Benchmark
+    public List<Piece> legacyPromotion() {
+        return MoveUtils.handleMove(promotionPieces, promotionMove);
+    }
+
+    @Benchmark
+    public int bitBoardCapture() {
+        scratch.copyFrom(kiwipete);
+        return scratch.makeMove(36, 53, BitBoard.NO_PIECE);
+    }
+
+    @Benchmark
+    public int bitBoardCastling() {
+        scratch.copyFrom(kiwipete);
+        return scratch.makeMove(4, 6, BitBoard.NO_PIECE);
+    }
+
+    @Benchmark
+    public int bitBoardPromotion() {
+        scratch.copyFrom(promotion);
+        return scratch.makeMove(48, 56, BitBoard.QUEEN);
+    }
+
+    @Benchmark
+    public long recordCapture() {
+        captured = CapturedPieceUtil.recordCapture(captured & 0x7777777777777777L, BitBoard.piece(BitBoard.BLACK, BitBoard.PAWN));
+        return captured;
+    }
+
+    @Benchmark
+    public String capturedString() {
+        return CapturedPieceUtil.toCapturedString(0x0000_0000_0321_0008L);
+    }
+
+    // Rows here are FEN rows, as in the piece ids
+    private static Piece find(List<Piece> pieces, int fenRow, int col) {
+        String suffix = "-" + fenRow + "-" + col;
+        return pieces.stream().filter(p -> p.getId().endsWith(suffix)).findFirst().orElseThrow();
+    }
+}
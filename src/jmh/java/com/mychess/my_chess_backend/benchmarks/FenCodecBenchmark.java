@@ -0,0 +1,79 @@
+package com.mychess.my_chess_backend.benchmarks;
+
+import com.mychess.my_chess_backend.dtos.shared.Piece;
+import com.mychess.my_chess_backend.utils.BitBoard;
+import com.mychess.my_chess_backend.utils.FenCodec;
+import com.mychess.my_chess_backend.utils.FenUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the List&lt;Piece&gt; based {@link FenUtils} round trip with the single-pass {@link FenCodec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class FenCodecBenchmark {
+    @Param({
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"
+    })
+    public String fen;
+
+    private final BitBoard board = new BitBoard();
+    private final FenCodec codec = new FenCodec();
+    private List<Piece> pieces;
+
+    @Setup
+    public void setUp() {
+        pieces = FenUtils.parseFenToPieces(fen);
+        FenCodec.read(fen, board);
+    }
+
+    @Benchmark
+    public List<Piece> legacyParse() {
+        return FenUtils.parseFenToPieces(fen);
+    }
+
+    @Benchmark
+    public String legacyWrite() {
+        return FenUtils.piecesToFen(pieces, "w");
+    }
+
+    @Benchmark
+    public String legacyRoundTrip() {
+        return FenUtils.piecesToFen(FenUtils.parseFenToPieces(fen), "w");
+    }
+
+    @Benchmark
+    public String legacySplitTurn() {
+        return fen.split(" ")[1];
+    }
+
+    @Benchmark
+    public BitBoard codecParse() {
+        FenCodec.read(fen, board);
+        return board;
+    }
+
+    @Benchmark
+    public String codecWrite() {
+        return codec.write(board);
+    }
+
+    @Benchmark
+    public String codecRoundTrip() {
+        FenCodec.read(fen, board);
+        return codec.write(board);
+    }
+
+    @Benchmark
+    public int codecSideToMove() {
+        return FenCodec.sideToMove(fen);
+    }
+}
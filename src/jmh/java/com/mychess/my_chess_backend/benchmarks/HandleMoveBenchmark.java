@@ -0,0 +1,208 @@
+package com.mychess.my_chess_backend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.dtos.redis.RoomStateField;
+import com.mychess.my_chess_backend.dtos.shared.Move;
+import com.mychess.my_chess_backend.dtos.shared.MoveDetails;
+import com.mychess.my_chess_backend.dtos.shared.Piece;
+import com.mychess.my_chess_backend.dtos.shared.Position;
+import com.mychess.my_chess_backend.models.GameMove;
+import com.mychess.my_chess_backend.services.events.RedisEventPublisher;
+import com.mychess.my_chess_backend.services.events.RoomBroadcaster;
+import com.mychess.my_chess_backend.services.events.RoomEventRing;
+import com.mychess.my_chess_backend.services.room.GameMoveWriter;
+import com.mychess.my_chess_backend.services.room.RedisGameService;
+import com.mychess.my_chess_backend.services.room.RoomActorRegistry;
+import com.mychess.my_chess_backend.services.room.RoomService;
+import com.mychess.my_chess_backend.services.room.RoomSnapshots;
+import com.mychess.my_chess_backend.services.room.RoomStateRebuilder;
+import com.mychess.my_chess_backend.utils.BitBoard;
+import com.mychess.my_chess_backend.utils.PackedMove;
+import com.mychess.my_chess_backend.utils.enums.ChessPiece;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RoomService#handleMove} end to end: validation, board update, FEN, outcome, event serialization and publish.
+ * Redis, the broker channel and Pub/Sub are replaced by in-memory stand-ins, so only the in-process cost is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class HandleMoveBenchmark {
+    private static final String ROOM_CODE = "BENCH1";
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String PROMOTION = "7k/P7/8/8/8/8/8/K7 w - - 0 1";
+
+    @Param({ "quiet", "capture", "castling", "promotion" })
+    public String scenario;
+
+    private RoomService roomService;
+    private MoveCache cache;
+    private String fen;
+    private Move move;
+    private short packedMove;
+
+    @Setup
+    public void setUp() throws IOException {
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> true);
+        ObjectMapper objectMapper = new ObjectMapper();
+        RoomBroadcaster broadcaster = new RoomBroadcaster(
+            messagingTemplate,
+            objectMapper,
+            new DiscardingEventPublisher(),
+            new RoomSnapshots(null, objectMapper),
+            new RoomEventRing(new SimpleMeterRegistry(), 128)
+        );
+        roomService = new RoomService(
+            null,
+            null,
+            new InMemoryRedisGameService(),
+            broadcaster,
+            new DiscardingEventPublisher(),
+            new RoomActorRegistry(),
+            new DiscardingMoveWriter(),
+            new RoomStateRebuilder(null)
+        );
+
+        int from, to, promotionType = BitBoard.NO_PIECE;
+        switch (scenario) {
+            case "quiet" -> { fen = START; from = 12; to = 28; }
+            case "capture" -> { fen = KIWIPETE; from = 36; to = 53; }
+            case "castling" -> { fen = KIWIPETE; from = 4; to = 6; }
+            case "promotion" -> { fen = PROMOTION; from = 48; to = 56; promotionType = BitBoard.QUEEN; }
+            default -> throw new IllegalArgumentException(scenario);
+        }
+
+        BitBoard board = BitBoard.fromFen(fen);
+        move = clientMove(board, from, to, promotionType);
+        packedMove = (short) PackedMove.encode(from, to, promotionType);
+        cache = MoveCache.builder()
+            .whitePlayerId(UUID.randomUUID())
+            .blackPlayerId(UUID.randomUUID())
+            .gameStatus(GameStatus.IN_PROGRESS)
+            .build();
+    }
+
+    @Benchmark
+    public MoveCache richMove() {
+        roomService.handleMove(move, ROOM_CODE, resetCache());
+        return cache;
+    }
+
+    @Benchmark
+    public MoveCache packedMove() {
+        roomService.handleMove(packedMove, ROOM_CODE, resetCache());
+        return cache;
+    }
+
+    private MoveCache resetCache() {
+        return cache.setFen(fen)
+            .setCaptured(0L)
+            .setMoveSequence(0L)
+            .setPendingPromotionSquare(null)
+            .setZobristHash(null)
+            .setPositionHistory(null)
+            .setMoveHistory(null);
+    }
+
+    // The rich payload as the web client sends it: ids from the FEN, target row from the mover's side
+    private static Move clientMove(BitBoard board, int from, int to, int promotionType) {
+        int piece = board.pieceAt(from);
+        String color = BitBoard.colorOf(piece) == BitBoard.WHITE ? "w" : "b";
+        String type = ChessPiece.fromFenChar(Character.toLowerCase(BitBoard.fenChar(piece))).getValue();
+        int fenRow = 7 - BitBoard.rowOf(from);
+        int targetRow = BitBoard.colorOf(piece) == BitBoard.WHITE ? 7 - BitBoard.rowOf(to) : BitBoard.rowOf(to);
+
+        MoveDetails moveDetails = new MoveDetails()
+            .setValid(true)
+            .setPromotion(promotionType != BitBoard.NO_PIECE)
+            .setPromotionType(promotionType == BitBoard.QUEEN ? ChessPiece.QUEEN : null);
+        return new Move()
+            .setPiece(new Piece()
+                .setId(color + '-' + type + '-' + fenRow + '-' + BitBoard.colOf(from))
+                .setRow((byte) BitBoard.rowOf(from))
+                .setCol((byte) BitBoard.colOf(from))
+                .setColor(color)
+                .setType(type))
+            .setTo(new Position((byte) targetRow, (byte) BitBoard.colOf(to)))
+            .setMoveDetails(moveDetails);
+    }
+
+    static class InMemoryRedisGameService extends RedisGameService {
+        private final Map<String, MoveCache> caches = new HashMap<>();
+
+        InMemoryRedisGameService() {
+            super(null, null, null, null, null, null, null, null, RateLimiterRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        }
+
+        @Override
+        public void saveMoveCache(String code, MoveCache cache) {
+            caches.put(code, cache);
+        }
+
+        @Override
+        public MoveCache getMoveCache(String code) {
+            return caches.get(code);
+        }
+
+        @Override
+        public MoveCache commitMove(
+            String code,
+            MoveCache cache,
+            long expectedSequence,
+            Set<RoomStateField> changed,
+            String channel,
+            byte[] event
+        ) {
+            caches.put(code, cache);
+            return null;
+        }
+    }
+
+    static class DiscardingMoveWriter extends GameMoveWriter {
+        DiscardingMoveWriter() throws IOException {
+            super(null, new SimpleMeterRegistry(), Files.createTempDirectory("bench-move-log").toString(), 1, 1);
+        }
+
+        @Override
+        public void record(GameMove move) {
+        }
+    }
+
+    static class DiscardingEventPublisher extends RedisEventPublisher {
+        // Kept so the frame escapes like a real publish would
+        volatile byte[] lastFrame;
+
+        DiscardingEventPublisher() {
+            super(null, "frame");
+        }
+
+        @Override
+        public String getServerId() {
+            return "bench";
+        }
+
+        @Override
+        public void publishFrame(String roomCode, byte[] frame) {
+            lastFrame = frame;
+        }
+    }
+}
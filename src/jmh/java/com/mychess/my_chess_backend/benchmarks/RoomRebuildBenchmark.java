@@ -0,0 +1,63 @@
+package com.mychess.my_chess_backend.benchmarks;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.models.GameMove;
+import com.mychess.my_chess_backend.services.room.RoomStateRebuilder;
+import com.mychess.my_chess_backend.utils.BitBoard;
+import com.mychess.my_chess_backend.utils.MoveGenerator;
+import com.mychess.my_chess_backend.utils.PackedMove;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RoomStateRebuilder#replay}: a snapshot of the start position plus {@code plies} logged moves of a
+ * reproducible random game, i.e. the work of a cache miss once the snapshot is that far behind.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class RoomRebuildBenchmark {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Param({ "20", "80" })
+    public int plies;
+
+    private List<GameMove> moves;
+
+    @Setup
+    public void setUp() {
+        BitBoard board = BitBoard.fromFen(START);
+        Random random = new Random(42);
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        LocalDateTime playedAt = LocalDateTime.now();
+
+        moves = new ArrayList<>(plies);
+        for (int ply = 1; ply <= plies; ply++) {
+            int count = MoveGenerator.generateLegalMoves(board, legal);
+            if (count == 0) { break; }
+
+            int move = legal[random.nextInt(count)];
+            board.makeMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotionType(move));
+            moves.add(new GameMove("BENCH1", ply, (short) move, false, playedAt));
+        }
+    }
+
+    @Benchmark
+    public MoveCache replay() {
+        MoveCache snapshot = MoveCache.builder()
+            .fen(START)
+            .gameStatus(GameStatus.IN_PROGRESS)
+            .moveSequence(0L)
+            .build();
+        return RoomStateRebuilder.replay(snapshot, moves);
+    }
+}
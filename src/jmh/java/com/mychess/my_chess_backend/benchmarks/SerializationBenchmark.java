@@ -0,0 +1,146 @@
+package com.mychess.my_chess_backend.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mychess.my_chess_backend.dtos.events.RoomEventDTO;
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.dtos.responses.room.PieceMovedResponseDTO;
+import com.mychess.my_chess_backend.dtos.shared.Move;
+import com.mychess.my_chess_backend.dtos.shared.MoveDetails;
+import com.mychess.my_chess_backend.dtos.shared.Piece;
+import com.mychess.my_chess_backend.dtos.shared.Position;
+import com.mychess.my_chess_backend.utils.PackedMove;
+import com.mychess.my_chess_backend.utils.RoomBinaryCodec;
+import com.mychess.my_chess_backend.utils.enums.EventType;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (as configured on the Redis templates) vs {@link RoomBinaryCodec} for the two hot Redis values:
+ * the room's {@link MoveCache} mid-game and a move event on Pub/Sub. Run with {@code -prof gc} for bytes allocated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class SerializationBenchmark {
+    private static final String FEN = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final int PLIES = 40;
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonRedisSerializer<Object> jsonSerializer;
+    private RoomBinaryCodec codec;
+
+    private MoveCache cache;
+    private RoomEventDTO event;
+    private byte[] cacheJson;
+    private byte[] cacheBinary;
+    private byte[] eventJson;
+    private byte[] eventBinary;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JsonMapper().builder()
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .addModule(new JavaTimeModule())
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+        jsonSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+        codec = new RoomBinaryCodec(objectMapper);
+
+        long[] positions = new long[PLIES];
+        short[] moves = new short[PLIES];
+        for (int i = 0; i < PLIES; i++) {
+            positions[i] = 0x9E3779B97F4A7C15L * (i + 1);
+            moves[i] = (short) PackedMove.encode(i % 64, (i * 7) % 64, 0);
+        }
+        cache = MoveCache.builder()
+            .fen(FEN)
+            .captured(0x0000_0102_0000_0001L)
+            .moveSequence((long) PLIES)
+            .whitePlayerId(UUID.randomUUID())
+            .blackPlayerId(UUID.randomUUID())
+            .gameStatus(GameStatus.IN_PROGRESS)
+            .lastActivity(LocalDateTime.now())
+            .zobristHash(positions[PLIES - 1])
+            .positionHistory(positions)
+            .moveHistory(moves)
+            .build();
+
+        Move move = new Move()
+            .setPiece(new Piece().setId("w-n-3-4").setRow((byte) 4).setCol((byte) 4).setColor("w").setType("knight"))
+            .setTo(new Position((byte) 1, (byte) 5))
+            .setMoveDetails(new MoveDetails().setValid(true).setPromotion(false));
+        PieceMovedResponseDTO pieceMoved = new PieceMovedResponseDTO()
+            .setMove(move)
+            .setPackedMove((short) PackedMove.encode(36, 53, 0))
+            .setFen(FEN)
+            .setMoveSequence((long) PLIES);
+        event = new RoomEventDTO("BENCH1", UUID.randomUUID().toString(), EventType.MOVE, pieceMoved);
+
+        cacheJson = jsonSerializer.serialize(cache);
+        cacheBinary = codec.encode(cache);
+        eventJson = jsonSerializer.serialize(event);
+        eventBinary = codec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] jsonWriteCache() {
+        return jsonSerializer.serialize(cache);
+    }
+
+    @Benchmark
+    public byte[] binaryWriteCache() {
+        return codec.encode(cache);
+    }
+
+    // Includes the convertValue RedisGameService does on every read
+    @Benchmark
+    public MoveCache jsonReadCache() {
+        return objectMapper.convertValue(jsonSerializer.deserialize(cacheJson), MoveCache.class);
+    }
+
+    @Benchmark
+    public MoveCache binaryReadCache() {
+        return (MoveCache) codec.decode(cacheBinary);
+    }
+
+    @Benchmark
+    public byte[] jsonWriteEvent() {
+        return jsonSerializer.serialize(event);
+    }
+
+    @Benchmark
+    public byte[] binaryWriteEvent() {
+        return codec.encode(event);
+    }
+
+    // Same path as RedisEventSubscriber
+    @Benchmark
+    public RoomEventDTO jsonReadEvent() throws Exception {
+        return objectMapper.readValue(eventJson, RoomEventDTO.class);
+    }
+
+    @Benchmark
+    public RoomEventDTO binaryReadEvent() {
+        return codec.decodeRoomEvent(eventBinary);
+    }
+
+    @TearDown
+    public void printSizes() {
+        System.out.printf("%nMoveCache: json %d B, binary %d B; move event: json %d B, binary %d B%n",
+            cacheJson.length, cacheBinary.length, eventJson.length, eventBinary.length);
+    }
+}
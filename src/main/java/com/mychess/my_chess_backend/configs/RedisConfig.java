@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mychess.my_chess_backend.utils.RoomBinaryCodec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,6 +34,10 @@ public class RedisConfig {
   @Value("${spring.data.redis.password}")
   private String password;
 
+  // "json" or "binary" (RoomBinaryCodec) for room state values
+  @Value("${spring.app.redis-codec.cache:json}")
+  private String cacheCodec;
+
   private final ObjectMapper objectMapper;
 
   public RedisConfig(ObjectMapper objectMapper) {
@@ -55,7 +60,12 @@ public class RedisConfig {
   }
 
   @Bean
-  public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+  public RoomBinaryCodec roomBinaryCodec() {
+    return new RoomBinaryCodec(objectMapper);
+  }
+
+  @Bean
+  public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory, RoomBinaryCodec codec) {
     RedisTemplate<String, Object> template = new RedisTemplate<>();
     template.setConnectionFactory(connectionFactory);
 
@@ -65,7 +75,7 @@ public class RedisConfig {
 
     serializer.setObjectMapper(optimizedMapper());
 
-    template.setValueSerializer(serializer);
+    template.setValueSerializer("binary".equals(cacheCodec) ? new RoomBinaryRedisSerializer(codec, serializer) : serializer);
     template.setHashValueSerializer(serializer);
     return template;
   }
@@ -1,12 +1,12 @@
 package com.mychess.my_chess_backend.configs;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mychess.my_chess_backend.services.events.RedisEventSubscriber;
+import com.mychess.my_chess_backend.utils.RoomBinaryCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -18,31 +18,34 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 public class RedisSubscriberConfig {
   private final ObjectMapper objectMapper;
 
+  // "frame" (RoomEventFrame), or "json" / "binary" (RoomBinaryCodec) for whole RoomEventDTOs as published before frames
+  @Value("${spring.app.redis-codec.events:json}")
+  private String eventCodec;
+
   public RedisSubscriberConfig(ObjectMapper objectMapper) {
     this.objectMapper = objectMapper;
   }
 
+  /**
+   * Starts without channels; RoomSubscriptionTracker subscribes to each room's channel while it has local subscribers.
+   */
   @Bean
-  public RedisMessageListenerContainer redisMessageListenerContainer(
-      RedisConnectionFactory connectionFactory,
-      RedisEventSubscriber subscriber
-  ) {
+  public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
     RedisMessageListenerContainer container = new RedisMessageListenerContainer();
     container.setConnectionFactory(connectionFactory);
-    container.addMessageListener(subscriber, new PatternTopic("room:*:events"));
 
     return container;
   }
 
   @Bean
-  public RedisTemplate<String, Object> pubSubRedisTemplate(RedisConnectionFactory connectionFactory) {
+  public RedisTemplate<String, Object> pubSubRedisTemplate(RedisConnectionFactory connectionFactory, RoomBinaryCodec codec) {
     RedisTemplate<String, Object> template = new RedisTemplate<>();
     template.setConnectionFactory(connectionFactory);
 
     Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
 
     template.setKeySerializer(new StringRedisSerializer());
-    template.setValueSerializer(serializer);
+    template.setValueSerializer("binary".equals(eventCodec) ? new RoomBinaryRedisSerializer(codec, serializer) : serializer);
     template.setHashKeySerializer(new StringRedisSerializer());
     template.setHashValueSerializer(serializer);
 
@@ -0,0 +1,42 @@
+package com.mychess.my_chess_backend.configs;
+
+import com.mychess.my_chess_backend.utils.RoomBinaryCodec;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Writes room state and events with {@link RoomBinaryCodec} and everything else with the JSON serializer it wraps.
+ * Reads both formats, so switching a template to binary keeps values written as JSON readable until they expire.
+ */
+public class RoomBinaryRedisSerializer implements RedisSerializer<Object> {
+  private final RoomBinaryCodec codec;
+  private final RedisSerializer<Object> jsonSerializer;
+
+  public RoomBinaryRedisSerializer(RoomBinaryCodec codec, RedisSerializer<Object> jsonSerializer) {
+    this.codec = codec;
+    this.jsonSerializer = jsonSerializer;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (!RoomBinaryCodec.supports(value)) { return jsonSerializer.serialize(value); }
+
+    try {
+      return codec.encode(value);
+    } catch (RuntimeException e) {
+      throw new SerializationException("Could not write binary room value: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) { return null; }
+    if (!RoomBinaryCodec.isBinary(bytes)) { return jsonSerializer.deserialize(bytes); }
+
+    try {
+      return codec.decode(bytes);
+    } catch (RuntimeException e) {
+      throw new SerializationException("Could not read binary room value: " + e.getMessage(), e);
+    }
+  }
+}
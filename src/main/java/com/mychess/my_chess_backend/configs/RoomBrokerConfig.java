@@ -0,0 +1,41 @@
+package com.mychess.my_chess_backend.configs;
+
+import com.mychess.my_chess_backend.services.websocket.RoomBrokerExecutor;
+import com.mychess.my_chess_backend.services.websocket.RoomSubscriptionRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+
+/**
+ * Turns the in-process broker into the room-indexed one ({@code spring.app.websocket.broker=room}): subscriptions
+ * go to {@link RoomSubscriptionRegistry}, and {@link WebSocketConfig} hands the broker channel to
+ * {@link RoomBrokerExecutor}, so delivery runs on per-room lanes instead of the publishing thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.app.websocket.broker", havingValue = "room")
+public class RoomBrokerConfig {
+
+  @Bean
+  public RoomSubscriptionRegistry roomSubscriptionRegistry(
+      @Qualifier("simpleBrokerMessageHandler") AbstractBrokerMessageHandler broker,
+      MeterRegistry meterRegistry
+  ) {
+    RoomSubscriptionRegistry registry = new RoomSubscriptionRegistry(meterRegistry);
+    ((SimpleBrokerMessageHandler) broker).setSubscriptionRegistry(registry);
+    return registry;
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  public RoomBrokerExecutor roomBrokerExecutor(
+      MeterRegistry meterRegistry,
+      @Value("${spring.app.websocket.broker-lanes:0}") int lanes,
+      @Value("${spring.app.websocket.broker-lane-capacity:10000}") int laneCapacity
+  ) {
+    return new RoomBrokerExecutor(lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors(), laneCapacity, meterRegistry);
+  }
+}
@@ -2,25 +2,40 @@ package com.mychess.my_chess_backend.configs;
 
 import com.mychess.my_chess_backend.filters.WsUserInterceptor;
 import com.mychess.my_chess_backend.interceptors.JwtAuthHandshakeInterceptor;
+import com.mychess.my_chess_backend.services.websocket.RoomBrokerExecutor;
+import com.mychess.my_chess_backend.services.websocket.RoomStreamResumer;
+import com.mychess.my_chess_backend.services.websocket.SessionOutboundQueues;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     private final JwtAuthHandshakeInterceptor jwtAuthInterceptor;
     private final WsUserInterceptor wsUserInterceptor;
+    // Only defined with spring.app.websocket.broker=room, see RoomBrokerConfig
+    private final ObjectProvider<RoomBrokerExecutor> roomBrokerExecutor;
+    private final SessionOutboundQueues sessionOutboundQueues;
+    private final RoomStreamResumer roomStreamResumer;
 
     public WebSocketConfig(
             JwtAuthHandshakeInterceptor jwtAuthInterceptor,
-            WsUserInterceptor wsUserInterceptor
+            WsUserInterceptor wsUserInterceptor,
+            ObjectProvider<RoomBrokerExecutor> roomBrokerExecutor,
+            SessionOutboundQueues sessionOutboundQueues,
+            RoomStreamResumer roomStreamResumer
     ) {
         this.jwtAuthInterceptor = jwtAuthInterceptor;
         this.wsUserInterceptor = wsUserInterceptor;
+        this.roomBrokerExecutor = roomBrokerExecutor;
+        this.sessionOutboundQueues = sessionOutboundQueues;
+        this.roomStreamResumer = roomStreamResumer;
     }
 
     @Override
@@ -37,8 +52,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureBrokerChannel(ChannelRegistration registration) {
+        this.roomBrokerExecutor.ifAvailable(registration::executor);
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(wsUserInterceptor);
+        registration.interceptors(wsUserInterceptor, roomStreamResumer);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(sessionOutboundQueues);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // SessionOutboundQueues keeps one message per session in flight, so these limits only back it up
+        registration
+                .setSendBufferSizeLimit(sessionOutboundQueues.getSendBufferBytes())
+                .setSendTimeLimit(sessionOutboundQueues.getSendTimeLimitMillis())
+                .addDecoratorFactory(sessionOutboundQueues::decorate);
     }
 }
@@ -1,5 +1,6 @@
 package com.mychess.my_chess_backend.controllers.room;
 
+import com.mychess.my_chess_backend.dtos.requests.room.PackedMoveDTO;
 import com.mychess.my_chess_backend.dtos.responses.room.ErrorResponseDTO;
 import com.mychess.my_chess_backend.dtos.shared.Move;
 import com.mychess.my_chess_backend.models.User;
@@ -41,6 +42,20 @@ public class RoomWebSocketController {
         this.roomService.processPlayerMove(move, code, user);
     }
 
+    /**
+     * Compact alternative to {@link #move}: a two-byte packed move instead of the full move payload.
+     */
+    @MessageMapping("/room/{code}/move/packed")
+    public void packedMove(
+        @DestinationVariable String code,
+        @Payload PackedMoveDTO packedMove,
+        Principal userPrincipal
+    ) {
+        Authentication auth = (Authentication) userPrincipal;
+        User user = (User) auth.getPrincipal();
+        this.roomService.processPlayerMove(packedMove, code, user);
+    }
+
     @MessageMapping("/room/{code}/join")
     public void joinRoom(
         @DestinationVariable String code,
@@ -1,5 +1,7 @@
 package com.mychess.my_chess_backend.dtos.redis;
 
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
 import com.mychess.my_chess_backend.utils.enums.GameStatus;
 import lombok.*;
 import lombok.experimental.Accessors;
@@ -15,10 +17,24 @@ import java.util.UUID;
 @ToString
 public class MoveCache {
   private String fen;
-  private String capturedPieces;
+  // Packed per-piece capture counters, see CapturedPieceUtil
+  private long captured;
   private UUID whitePlayerId;
   private UUID blackPlayerId;
   private GameStatus gameStatus;
   private LocalDateTime lastActivity;
   private Long moveSequence;
+  // Square of a pawn auto-promoted to a queen while its owner still picks the piece (two-step promotion)
+  private Integer pendingPromotionSquare;
+  // Zobrist hash of the current position and of every position since the last capture or pawn move
+  private Long zobristHash;
+  private long[] positionHistory;
+  // Every move of the game as a PackedMove value
+  private short[] moveHistory;
+
+  // Caches written before captures were packed carry the client string instead
+  @JsonSetter("capturedPieces")
+  public void setLegacyCapturedPieces(String capturedPieces) {
+    this.captured = CapturedPieceUtil.parse(capturedPieces);
+  }
 }
@@ -0,0 +1,38 @@
+package com.mychess.my_chess_backend.dtos.redis;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fields of a room's {@link MoveCache} when it is stored as a Redis hash, one hash field each.
+ */
+public enum RoomStateField {
+  FEN("fen"),
+  CAPTURED("captured"),
+  SEQUENCE("seq"),
+  STATUS("status"),
+  WHITE_PLAYER("white"),
+  BLACK_PLAYER("black"),
+  LAST_ACTIVITY("lastActivity"),
+  PENDING_PROMOTION("promotion"),
+  ZOBRIST_HASH("hash"),
+  POSITION_HISTORY("positions"),
+  MOVE_HISTORY("moves");
+
+  private final String value;
+  private final byte[] bytes;
+
+  RoomStateField(String value) {
+    this.value = value;
+    this.bytes = value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  public String getValue() { return this.value; }
+  public byte[] getBytes() { return this.bytes; }
+
+  public static RoomStateField fromValue(String value) {
+    for (RoomStateField field : values()) {
+      if (field.value.equals(value)) { return field; }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,17 @@
+package com.mychess.my_chess_backend.dtos.requests.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact move payload: the move as a {@link com.mychess.my_chess_backend.utils.PackedMove} value
+ * instead of the full piece, target and move details.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackedMoveDTO {
+    private short move;
+    private Long expectedMoveSequence;
+}
@@ -12,6 +12,8 @@ import lombok.experimental.Accessors;
 @NoArgsConstructor
 public class PieceMovedResponseDTO {
     private Move move;
+    // The same move as a PackedMove value
+    private Short packedMove;
     private String fen;
     private Long moveSequence;
 }
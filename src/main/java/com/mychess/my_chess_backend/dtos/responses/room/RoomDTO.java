@@ -22,6 +22,7 @@ public class RoomDTO {
     private String code;
     private String fen;
     private String capturedPieces;
+    private Integer materialBalance;
     private LocalDateTime lastActivity;
     private Long moveSequence;
     private AuthenticatedUserDTO whitePlayer;
@@ -2,13 +2,13 @@ package com.mychess.my_chess_backend.event_listeners;
 
 import com.mychess.my_chess_backend.models.Room;
 import com.mychess.my_chess_backend.models.User;
-import com.mychess.my_chess_backend.services.events.RedisEventPublisher;
+import com.mychess.my_chess_backend.services.events.RoomBroadcaster;
 import com.mychess.my_chess_backend.services.room.RoomService;
 import com.mychess.my_chess_backend.services.user.UserService;
+import com.mychess.my_chess_backend.utils.enums.EventType;
 import com.mychess.my_chess_backend.utils.enums.GameStatus;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
@@ -22,21 +22,18 @@ import java.security.Principal;
 @Component
 @Slf4j
 public class WebSocketEvents {
-    private final SimpMessagingTemplate messagingTemplate;
     private final UserService userService;
     private final RoomService roomService;
-    private final RedisEventPublisher redisEventPublisher;
+    private final RoomBroadcaster roomBroadcaster;
 
     public WebSocketEvents(
-        SimpMessagingTemplate messagingTemplate,
         UserService userService,
         RoomService roomService,
-        RedisEventPublisher redisEventPublisher
+        RoomBroadcaster roomBroadcaster
     ) {
-        this.messagingTemplate = messagingTemplate;
         this.userService = userService;
         this.roomService = roomService;
-        this.redisEventPublisher = redisEventPublisher;
+        this.roomBroadcaster = roomBroadcaster;
     }
 
     @EventListener
@@ -56,8 +53,7 @@ public class WebSocketEvents {
 
         log.info("User {} disconnected from room {}", disconnectedUser.getUsername(), code);
 
-        this.messagingTemplate.convertAndSend("/topic/room." + code, message);
-        this.redisEventPublisher.publishMessage(code, message);
+        this.roomBroadcaster.broadcast(code, EventType.MESSAGE, message);
 
         disconnectedUser.setInGame(false);
         this.userService.updateUser(disconnectedUser);
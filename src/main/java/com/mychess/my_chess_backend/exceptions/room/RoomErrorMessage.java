@@ -10,7 +10,9 @@ public enum RoomErrorMessage {
     UNAUTHORIZED_MOVE("Unauthorized move."),
     GAME_INACTIVE("Game is not active."),
     WHITES_TURN("It's White's turn."),
-    BLACKS_TURN("It's Black's turn.");
+    BLACKS_TURN("It's Black's turn."),
+    ILLEGAL_MOVE("Illegal move."),
+    NO_PENDING_PROMOTION("There is no promotion to complete.");
 
     private final String value;
     RoomErrorMessage(String value) { this.value = value; }
@@ -0,0 +1,18 @@
+package com.mychess.my_chess_backend.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the {@code game_moves} log. The table is partitioned by {@code playedAt}, which JPA can't create,
+ * so it is read and written with plain JDBC in {@link com.mychess.my_chess_backend.repositories.GameMoveRepository}.
+ *
+ * @param move            the move as a PackedMove value
+ * @param promotionChoice the piece picked for the previous move's promotion (two-step promotion), replacing it
+ */
+public record GameMove(
+    String roomCode,
+    long moveSequence,
+    short move,
+    boolean promotionChoice,
+    LocalDateTime playedAt
+) {}
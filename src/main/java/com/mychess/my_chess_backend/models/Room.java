@@ -1,14 +1,18 @@
 package com.mychess.my_chess_backend.models;
 
 import com.mychess.my_chess_backend.dtos.shared.PieceDetails;
+import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
 import com.mychess.my_chess_backend.utils.enums.GameStatus;
 import com.mychess.my_chess_backend.utils.enums.RoomStatus;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDateTime;
@@ -40,7 +44,14 @@ public class Room {
     private String code;
     @Column(nullable = false, length = 100)
     private String fen;
+    // Packed per-piece capture counters, see CapturedPieceUtil
+    @Builder.Default
+    @ColumnDefault("0")
     @Column(nullable = false)
+    private Long captured = CapturedPieceUtil.NONE;
+    // Client-string copy of captured, kept for instances that still read it; see CapturedPiecesMigration
+    @Setter(AccessLevel.NONE)
+    @Column(name = "captured_pieces")
     private String capturedPieces;
 
     private UUID whitePlayer;
@@ -52,6 +63,18 @@ public class Room {
     @Column(name = "move_sequence", nullable = false)
     private Long moveSequence = 0L;
 
+    private Long zobristHash;
+    // Hashes of the positions since the last capture or pawn move
+    private long[] positionHistory;
+    // Every move of the game as a PackedMove value
+    private short[] moveHistory;
+
     @Version
     private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void writeLegacyCapturedPieces() {
+        capturedPieces = CapturedPieceUtil.toCapturedString(captured != null ? captured : CapturedPieceUtil.NONE);
+    }
 }
@@ -0,0 +1,95 @@
+package com.mychess.my_chess_backend.repositories;
+
+import com.mychess.my_chess_backend.models.GameMove;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code game_moves} log, range-partitioned by month on {@code played_at}. Moves are only ever appended.
+ */
+@Repository
+public class GameMoveRepository {
+    // 5 parameters per move, well below the driver's limit of 32767 per statement
+    public static final int MOVES_PER_STATEMENT = 2000;
+    private static final String ROW = "(?, ?, ?, ?, ?)";
+    private static final String INSERT_PREFIX =
+        "INSERT INTO game_moves (room_code, move_sequence, move, promotion_choice, played_at) VALUES ";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GameMoveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS game_moves (
+                room_code varchar(6) NOT NULL,
+                move_sequence bigint NOT NULL,
+                move smallint NOT NULL,
+                promotion_choice boolean NOT NULL DEFAULT false,
+                played_at timestamp(6) NOT NULL
+            ) PARTITION BY RANGE (played_at)""");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS game_moves_room_idx ON game_moves (room_code, move_sequence)");
+        // Catches rows for a month whose partition wasn't created in time
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS game_moves_default PARTITION OF game_moves DEFAULT");
+    }
+
+    public void createPartitionIfMissing(YearMonth month) {
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS game_moves_" + month.format(PARTITION_SUFFIX) +
+            " PARTITION OF game_moves FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')"
+        );
+    }
+
+    /**
+     * Appends {@code moves} with one multi-row INSERT per {@value #MOVES_PER_STATEMENT} moves.
+     */
+    public void insertAll(List<GameMove> moves) {
+        for (int start = 0; start < moves.size(); start += MOVES_PER_STATEMENT) {
+            List<GameMove> chunk = moves.subList(start, Math.min(start + MOVES_PER_STATEMENT, moves.size()));
+
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + chunk.size() * (ROW.length() + 2));
+            sql.append(INSERT_PREFIX);
+            List<Object> args = new ArrayList<>(chunk.size() * 5);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) { sql.append(", "); }
+                sql.append(ROW);
+
+                GameMove move = chunk.get(i);
+                args.add(move.roomCode());
+                args.add(move.moveSequence());
+                args.add(move.move());
+                args.add(move.promotionChoice());
+                args.add(Timestamp.valueOf(move.playedAt()));
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    /**
+     * The moves of a room with a sequence above {@code afterSequence}, oldest first.
+     */
+    public List<GameMove> findByRoomCodeAfter(String roomCode, long afterSequence) {
+        return jdbcTemplate.query(
+            "SELECT room_code, move_sequence, move, promotion_choice, played_at FROM game_moves " +
+            "WHERE room_code = ? AND move_sequence > ? ORDER BY move_sequence, played_at",
+            (rs, rowNum) -> new GameMove(
+                rs.getString(1),
+                rs.getLong(2),
+                rs.getShort(3),
+                rs.getBoolean(4),
+                rs.getTimestamp(5).toLocalDateTime()
+            ),
+            roomCode,
+            afterSequence
+        );
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.util.*;
 
-public interface RoomRepository extends JpaRepository<Room, UUID> {
+public interface RoomRepository extends JpaRepository<Room, UUID>, RoomStateBulkRepository {
     Optional<Room> findByCode(String code);
     List<Room> findAllByCodeIn(Collection<String> codes);
 
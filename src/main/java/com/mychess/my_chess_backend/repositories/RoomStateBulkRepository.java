@@ -0,0 +1,23 @@
+package com.mychess.my_chess_backend.repositories;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+
+import java.util.List;
+import java.util.Map;
+
+public interface RoomStateBulkRepository {
+    /**
+     * Writes the game state of every room in {@code states} (keyed by room code) without loading the entities.
+     * A room whose stored move sequence is already ahead of the given state is left untouched.
+     */
+    default void updateStates(Map<String, MoveCache> states) {
+        updateStates(states, 0);
+    }
+
+    /**
+     * Same as {@link #updateStates(Map)}, but only rooms at least {@code minAdvance} moves ahead of their stored
+     * snapshot, or whose game status changed, are written. Returns the codes of the rooms left unwritten although
+     * their state is ahead of the stored one.
+     */
+    List<String> updateStates(Map<String, MoveCache> states, long minAdvance);
+}
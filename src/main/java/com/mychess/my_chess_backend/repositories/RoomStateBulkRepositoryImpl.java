@@ -0,0 +1,125 @@
+package com.mychess.my_chess_backend.repositories;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@code UPDATE ... FROM (VALUES ...)} per chunk of rooms instead of a SELECT and a versioned UPDATE per room.
+ * The version is still bumped, so an entity loaded before the bulk write fails its optimistic lock check.
+ */
+public class RoomStateBulkRepositoryImpl implements RoomStateBulkRepository {
+    // 10 parameters per room, well below the driver's limit of 32767 per statement
+    private static final int ROOMS_PER_STATEMENT = 1000;
+    private static final String ROW = "(?, ?, ?, ?, ?, ?::timestamp, ?, ?, ?::bigint[], ?::smallint[])";
+    private static final String VALUES_PREFIX = """
+        WITH v(code, fen, captured, captured_pieces, game_status, last_activity, move_sequence, zobrist_hash, position_history, move_history)
+        AS (VALUES\s""";
+    private static final String UPDATE_SUFFIX = """
+        ), updated AS (
+            UPDATE rooms AS r SET
+                fen = v.fen,
+                captured = v.captured,
+                captured_pieces = v.captured_pieces,
+                game_status = v.game_status,
+                last_activity = v.last_activity,
+                move_sequence = v.move_sequence,
+                zobrist_hash = v.zobrist_hash,
+                position_history = v.position_history,
+                move_history = v.move_history,
+                version = COALESCE(r.version, 0) + 1
+            FROM v
+            WHERE r.code = v.code AND r.move_sequence <= v.move_sequence
+                AND (v.move_sequence - r.move_sequence >= ? OR v.game_status <> r.game_status)
+            RETURNING r.code
+        )
+        SELECT v.code FROM v JOIN rooms AS r ON r.code = v.code
+        WHERE r.move_sequence < v.move_sequence AND v.code NOT IN (SELECT code FROM updated)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RoomStateBulkRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<String> updateStates(Map<String, MoveCache> states, long minAdvance) {
+        List<Map.Entry<String, MoveCache>> entries = new ArrayList<>(states.entrySet());
+        List<String> behind = new ArrayList<>();
+        for (int start = 0; start < entries.size(); start += ROOMS_PER_STATEMENT) {
+            behind.addAll(update(entries.subList(start, Math.min(start + ROOMS_PER_STATEMENT, entries.size())), minAdvance));
+        }
+        return behind;
+    }
+
+    // The SELECT sees the rows as they were before the UPDATE, so it reads the old sequences
+    private List<String> update(List<Map.Entry<String, MoveCache>> chunk, long minAdvance) {
+        StringBuilder sql = new StringBuilder(VALUES_PREFIX.length() + UPDATE_SUFFIX.length() + chunk.size() * (ROW.length() + 2));
+        sql.append(VALUES_PREFIX);
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) { sql.append(", "); }
+            sql.append(ROW);
+        }
+        sql.append(UPDATE_SUFFIX);
+
+        List<String> behind = jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (Map.Entry<String, MoveCache> entry : chunk) {
+                    index = bind(statement, connection, index, entry.getKey(), entry.getValue());
+                }
+                statement.setLong(index, minAdvance);
+
+                List<String> codes = new ArrayList<>();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) { codes.add(rows.getString(1)); }
+                }
+                return codes;
+            }
+        });
+        return behind != null ? behind : List.of();
+    }
+
+    private static int bind(PreparedStatement statement, Connection connection, int index, String code, MoveCache cache)
+        throws SQLException {
+        statement.setString(index++, code);
+        statement.setString(index++, cache.getFen());
+        statement.setLong(index++, cache.getCaptured());
+        statement.setString(index++, CapturedPieceUtil.toCapturedString(cache.getCaptured()));
+        statement.setString(index++, cache.getGameStatus() != null ? cache.getGameStatus().name() : null);
+        statement.setObject(index++, cache.getLastActivity());
+        statement.setLong(index++, cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L);
+        statement.setObject(index++, cache.getZobristHash(), Types.BIGINT);
+        statement.setArray(index++, toArray(connection, "bigint", boxed(cache.getPositionHistory())));
+        statement.setArray(index++, toArray(connection, "smallint", boxed(cache.getMoveHistory())));
+        return index;
+    }
+
+    private static Array toArray(Connection connection, String type, Object[] values) throws SQLException {
+        return values != null ? connection.createArrayOf(type, values) : null;
+    }
+
+    private static Long[] boxed(long[] values) {
+        if (values == null) { return null; }
+        Long[] boxed = new Long[values.length];
+        for (int i = 0; i < values.length; i++) { boxed[i] = values[i]; }
+        return boxed;
+    }
+
+    private static Short[] boxed(short[] values) {
+        if (values == null) { return null; }
+        Short[] boxed = new Short[values.length];
+        for (int i = 0; i < values.length; i++) { boxed[i] = values[i]; }
+        return boxed;
+    }
+}
@@ -1,15 +1,18 @@
 package com.mychess.my_chess_backend.services.events;
 
 import com.mychess.my_chess_backend.dtos.events.RoomEventDTO;
-import com.mychess.my_chess_backend.dtos.responses.room.RoomDTO;
 import com.mychess.my_chess_backend.utils.enums.EventType;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Service for publishing room events to Redis Pub/Sub channels.
  */
@@ -17,6 +20,7 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class RedisEventPublisher {
   private final RedisTemplate<String, Object> pubSubRedisTemplate;
+  private final boolean framed;
 
   @Getter
   @Value("${server.instance.id:#{T(java.util.UUID).randomUUID().toString()}}")
@@ -26,27 +30,39 @@ public class RedisEventPublisher {
   private static final String CHANNEL_SUFFIX = ":events";
 
   public RedisEventPublisher(
-      @Qualifier("pubSubRedisTemplate") RedisTemplate<String, Object> pubSubRedisTemplate
+      @Qualifier("pubSubRedisTemplate") RedisTemplate<String, Object> pubSubRedisTemplate,
+      @Value("${spring.app.redis-codec.events:json}") String eventCodec
   ) {
     this.pubSubRedisTemplate = pubSubRedisTemplate;
+    this.framed = "frame".equals(eventCodec);
   }
 
-  public void publishRoomEvent(String roomCode, EventType eventType, Object payload) {
-    try {
-      String channel = CHANNEL_PREFIX + roomCode + CHANNEL_SUFFIX;
-      RoomEventDTO event = new RoomEventDTO(roomCode, serverId, eventType, payload);
+  /**
+   * What the other instances are sent for an event: {@code frame} as it is, or, while {@code redis-codec.events}
+   * is still {@code json} or {@code binary}, the whole {@link RoomEventDTO} in that codec, which instances from
+   * before frames can read too.
+   */
+  public byte[] wireFormat(String roomCode, EventType eventType, Object payload, byte[] frame) {
+    if (framed) { return frame; }
 
-      pubSubRedisTemplate.convertAndSend(channel, event);
-    } catch (Exception e) {
-      log.error("Failed to publish {} event for room {}. Error: {}", eventType, roomCode, e.getMessage(), e);
-    }
+    @SuppressWarnings("unchecked")
+    RedisSerializer<Object> serializer = (RedisSerializer<Object>) pubSubRedisTemplate.getValueSerializer();
+    return serializer.serialize(new RoomEventDTO(roomCode, serverId, eventType, payload));
   }
 
-  public void publishMessage(String roomCode, String message) {
-    publishRoomEvent(roomCode, EventType.MESSAGE, message);
+  /**
+   * Publishes an event already encoded by {@link RoomBroadcaster}; the bytes go out as they are.
+   */
+  public void publishFrame(String roomCode, byte[] frame) {
+    try {
+      byte[] channel = channel(roomCode).getBytes(StandardCharsets.UTF_8);
+      pubSubRedisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, frame));
+    } catch (Exception e) {
+      log.error("Failed to publish event for room {}. Error: {}", roomCode, e.getMessage(), e);
+    }
   }
 
-  public void publishRoomUpdate(String roomCode, RoomDTO roomDTO) {
-    publishRoomEvent(roomCode, EventType.ROOM_UPDATE, roomDTO);
+  public String channel(String roomCode) {
+    return CHANNEL_PREFIX + roomCode + CHANNEL_SUFFIX;
   }
 }
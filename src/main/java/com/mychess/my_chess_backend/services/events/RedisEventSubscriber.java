@@ -2,41 +2,93 @@ package com.mychess.my_chess_backend.services.events;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mychess.my_chess_backend.dtos.events.RoomEventDTO;
+import com.mychess.my_chess_backend.dtos.responses.room.PieceMovedResponseDTO;
+import com.mychess.my_chess_backend.services.room.RoomActorRegistry;
+import com.mychess.my_chess_backend.services.room.RoomNearCache;
+import com.mychess.my_chess_backend.utils.RoomBinaryCodec;
+import com.mychess.my_chess_backend.utils.RoomEventFrame;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 /**
  * Service for subscribing to Redis Pub/Sub channels and forwarding room events to local WebSocket subscribers.
+ * Reads frames and whole RoomEventDTOs alike, whatever {@code redis-codec.events} this instance publishes with.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RedisEventSubscriber implements MessageListener {
-  private final SimpMessagingTemplate messagingTemplate;
   private final ObjectMapper objectMapper;
-
-  @Value("${server.instance.id:#{T(java.util.UUID).randomUUID().toString()}}")
-  private String serverId;
-
-  private static final String TOPIC_PREFIX = "/topic/room.";
+  // Same id the publisher stamps on events; a second @Value would draw a different random id
+  private final RedisEventPublisher redisEventPublisher;
+  private final RoomActorRegistry roomActors;
+  private final RoomBinaryCodec roomBinaryCodec;
+  private final RoomNearCache nearCache;
+  private final RoomBroadcaster roomBroadcaster;
 
   @Override
   public void onMessage(Message message, byte[] pattern) {
     try {
-      String messageBody = new String(message.getBody());
-      RoomEventDTO event = objectMapper.readValue(messageBody, RoomEventDTO.class);
+      byte[] body = message.getBody();
+      if (RoomEventFrame.isFrame(body)) {
+        forward(body);
+        return;
+      }
 
-      if (event.getServerId().equals(serverId)) { return; }
+      // Whole RoomEventDTOs in either codec, as published before events were framed
+      RoomEventDTO event = RoomBinaryCodec.isBinary(body) ?
+          roomBinaryCodec.decodeRoomEvent(body) :
+          objectMapper.readValue(body, RoomEventDTO.class);
 
-      String destination = TOPIC_PREFIX + event.getRoomCode();
-      messagingTemplate.convertAndSend(destination, event.getPayload());
+      if (event.getServerId().equals(redisEventPublisher.getServerId())) { return; }
+
+      // Another instance changed the room, so the local actor's copy is stale
+      roomActors.invalidate(event.getRoomCode());
+      Long moveSequence = moveSequenceOf(event.getPayload());
+      if (moveSequence != null) {
+        nearCache.onRemoteMove(event.getRoomCode(), moveSequence);
+      } else {
+        nearCache.invalidate(event.getRoomCode());
+      }
+
+      roomBroadcaster.sendLocal(roomBroadcaster.encode(event.getRoomCode(), event.getEventType(), event.getPayload()));
     } catch (Exception e) {
       log.error("Error processing Redis Pub/Sub message: {}", e.getMessage(), e);
     }
   }
+
+  // Routes on the header alone; the body is already what STOMP subscribers receive
+  private void forward(byte[] frame) {
+    RoomEventFrame.Header header = RoomEventFrame.readHeader(frame);
+    if (header.origin().equals(redisEventPublisher.getServerId())) { return; }
+
+    roomActors.invalidate(header.roomCode());
+    if (header.moveSequence() != RoomEventFrame.NO_SEQUENCE) {
+      nearCache.onRemoteMove(header.roomCode(), header.moveSequence());
+    } else {
+      nearCache.invalidate(header.roomCode());
+    }
+    roomBroadcaster.sendLocal(new RoomBroadcaster.EncodedEvent(
+        header.roomCode(),
+        header.eventType(),
+        header.moveSequence(),
+        RoomEventFrame.body(frame, header),
+        header.text(),
+        frame
+    ));
+  }
+
+  // JSON events carry the payload as a map, binary ones as the DTO itself
+  private static Long moveSequenceOf(Object payload) {
+    if (payload instanceof PieceMovedResponseDTO pieceMoved) { return pieceMoved.getMoveSequence(); }
+    if (payload instanceof Map<?, ?> map && map.get("moveSequence") instanceof Number sequence) {
+      return sequence.longValue();
+    }
+    return null;
+  }
 }
@@ -0,0 +1,114 @@
+package com.mychess.my_chess_backend.services.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mychess.my_chess_backend.dtos.responses.room.PieceMovedResponseDTO;
+import com.mychess.my_chess_backend.services.room.RoomSnapshots;
+import com.mychess.my_chess_backend.utils.RoomEventFrame;
+import com.mychess.my_chess_backend.utils.enums.EventType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fans room events out to local STOMP subscribers and to the other instances with a single serialization:
+ * the payload is encoded to its STOMP body once, sent locally as is, and published inside a
+ * {@link RoomEventFrame} that receiving instances forward without decoding. While instances from before frames may
+ * still be listening, the event is published in their format instead, see {@link RedisEventPublisher#wireFormat}.
+ * Bodies match what the message converters would produce: strings as UTF-8 text, everything else as JSON.
+ */
+@Service
+public class RoomBroadcaster {
+  /**
+   * Message header carrying the {@link EventType} to the outbound channel; not sent to clients.
+   */
+  public static final String EVENT_TYPE_HEADER = "roomEventType";
+
+  private static final String TOPIC_PREFIX = "/topic/room.";
+  private static final MimeType TEXT = new MimeType(MimeTypeUtils.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final ObjectMapper objectMapper;
+  private final RedisEventPublisher redisEventPublisher;
+  private final RoomSnapshots roomSnapshots;
+  private final RoomEventRing roomEventRing;
+
+  /**
+   * An event encoded for both destinations; {@code frame} is what other instances are sent, normally {@code body}
+   * behind the routing header.
+   * {@code moveSequence} is {@link RoomEventFrame#NO_SEQUENCE} for anything but moves.
+   */
+  public record EncodedEvent(String roomCode, EventType eventType, long moveSequence, byte[] body, boolean text, byte[] frame) {}
+
+  public RoomBroadcaster(
+      SimpMessagingTemplate messagingTemplate,
+      ObjectMapper objectMapper,
+      RedisEventPublisher redisEventPublisher,
+      RoomSnapshots roomSnapshots,
+      RoomEventRing roomEventRing
+  ) {
+    this.messagingTemplate = messagingTemplate;
+    this.objectMapper = objectMapper;
+    this.redisEventPublisher = redisEventPublisher;
+    this.roomSnapshots = roomSnapshots;
+    this.roomEventRing = roomEventRing;
+  }
+
+  public static MimeType contentType(boolean text) {
+    return text ? TEXT : MimeTypeUtils.APPLICATION_JSON;
+  }
+
+  public EncodedEvent encode(String roomCode, EventType eventType, Object payload) {
+    boolean text = payload instanceof String;
+    byte[] body;
+    try {
+      body = text ? ((String) payload).getBytes(StandardCharsets.UTF_8) : objectMapper.writeValueAsBytes(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Could not serialize " + eventType + " event for room " + roomCode, e);
+    }
+
+    // Only moves advance the room; other events just mark cached state as stale on the receiving side
+    long moveSequence = payload instanceof PieceMovedResponseDTO pieceMoved && pieceMoved.getMoveSequence() != null ?
+        pieceMoved.getMoveSequence() :
+        RoomEventFrame.NO_SEQUENCE;
+    byte[] frame = redisEventPublisher.wireFormat(
+        roomCode,
+        eventType,
+        payload,
+        RoomEventFrame.encode(roomCode, redisEventPublisher.getServerId(), eventType, moveSequence, text, body)
+    );
+    return new EncodedEvent(roomCode, eventType, moveSequence, body, text, frame);
+  }
+
+  /**
+   * Sends to local subscribers and publishes to the other instances.
+   */
+  public void broadcast(String roomCode, EventType eventType, Object payload) {
+    EncodedEvent event = encode(roomCode, eventType, payload);
+    sendLocal(event);
+    redisEventPublisher.publishFrame(roomCode, event.frame());
+  }
+
+  public void sendLocal(EncodedEvent event) {
+    // Every event, local or forwarded, passes here, so this is where a cached snapshot goes stale
+    // and where the room's recent events are kept for resuming clients
+    roomSnapshots.onEvent(event.roomCode());
+    roomEventRing.record(event);
+
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headers.setContentType(contentType(event.text()));
+    headers.setHeader(EVENT_TYPE_HEADER, event.eventType());
+    headers.setLeaveMutable(true);
+
+    // A ready-made message skips the converters, so the body is not serialized again
+    Message<byte[]> message = MessageBuilder.createMessage(event.body(), headers.getMessageHeaders());
+    messagingTemplate.send(TOPIC_PREFIX + event.roomCode(), message);
+  }
+}
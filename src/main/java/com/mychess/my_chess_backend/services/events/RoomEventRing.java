@@ -0,0 +1,118 @@
+package com.mychess.my_chess_backend.services.events;
+
+import com.mychess.my_chess_backend.utils.RoomEventFrame;
+import com.mychess.my_chess_backend.utils.enums.EventType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The last events sent to each room's local subscribers, encoded bodies included, so a reconnecting client can get
+ * just what it missed after a move sequence. Every event is stamped with the room's sequence once it was sent.
+ * A ring starts at a move and only holds an unbroken run: a move that doesn't follow the last one starts it over,
+ * and events before the first move are not kept. Dropped for rooms this instance stops following
+ * ({@link RoomSubscriptionTracker}), since it would miss their events from then on.
+ */
+@Component
+public class RoomEventRing {
+  private static final long IDLE_EVICTION_MILLIS = 10 * 60 * 1000;
+
+  public record Entry(long moveSequence, EventType eventType, byte[] body, boolean text) {}
+
+  private final int capacity;
+  private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+  public RoomEventRing(
+      MeterRegistry meterRegistry,
+      @Value("${spring.app.room-stream.capacity:128}") int capacity
+  ) {
+    this.capacity = capacity;
+    Gauge.builder("room_stream.rooms", rings, Map::size).register(meterRegistry);
+  }
+
+  public void record(RoomBroadcaster.EncodedEvent event) {
+    rings.compute(event.roomCode(), (code, ring) -> {
+      if (event.eventType() != EventType.MOVE) {
+        if (ring != null) { ring.add(new Entry(ring.lastSequence, event.eventType(), event.body(), event.text())); }
+        return ring;
+      }
+
+      long sequence = event.moveSequence();
+      if (sequence == RoomEventFrame.NO_SEQUENCE) { return null; }
+      Ring target = ring != null && ring.lastSequence == sequence - 1 ? ring : new Ring(capacity, sequence - 1);
+      target.add(new Entry(sequence, EventType.MOVE, event.body(), event.text()));
+      return target;
+    });
+  }
+
+  /**
+   * Events a client that has seen moves up to {@code since} missed, oldest first, or null when the ring no longer
+   * (or never) covered them. Events sent after move {@code since} are included even if the client may have seen
+   * them, since nothing tells the two apart.
+   */
+  public List<Entry> since(String code, long since) {
+    Ring ring = rings.get(code);
+    return ring != null ? ring.since(since) : null;
+  }
+
+  public void invalidate(String code) {
+    rings.remove(code);
+  }
+
+  @Scheduled(fixedDelay = 60000)
+  public void evictIdleRings() {
+    long cutoff = System.currentTimeMillis() - IDLE_EVICTION_MILLIS;
+    rings.values().removeIf(ring -> ring.lastActive < cutoff);
+  }
+
+  private static class Ring {
+    private final Entry[] entries;
+    private int head;
+    private int size;
+    // Clients that have seen moves up to at least this sequence can be replayed from the ring
+    private long coveredFrom;
+    // Written under the ring's lock, volatile for the check in record
+    private volatile long lastSequence;
+    private volatile long lastActive = System.currentTimeMillis();
+
+    Ring(int capacity, long coveredFrom) {
+      this.entries = new Entry[capacity];
+      this.coveredFrom = coveredFrom;
+      this.lastSequence = coveredFrom;
+    }
+
+    synchronized void add(Entry entry) {
+      if (size == entries.length) {
+        Entry evicted = entries[head];
+        // A client at an evicted move's sequence has seen that move; one at another event's stamp may not have
+        coveredFrom = Math.max(coveredFrom, evicted.eventType() == EventType.MOVE ? evicted.moveSequence() : evicted.moveSequence() + 1);
+        head = (head + 1) % entries.length;
+        size--;
+      }
+      entries[(head + size) % entries.length] = entry;
+      size++;
+      if (entry.eventType() == EventType.MOVE) { lastSequence = entry.moveSequence(); }
+      lastActive = System.currentTimeMillis();
+    }
+
+    synchronized List<Entry> since(long since) {
+      if (since < coveredFrom || since > lastSequence) { return null; }
+
+      List<Entry> missed = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        Entry entry = entries[(head + i) % entries.length];
+        if (entry.moveSequence() > since || entry.moveSequence() == since && entry.eventType() != EventType.MOVE) {
+          missed.add(entry);
+        }
+      }
+      return missed;
+    }
+  }
+}
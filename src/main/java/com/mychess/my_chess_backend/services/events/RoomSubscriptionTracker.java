@@ -0,0 +1,108 @@
+package com.mychess.my_chess_backend.services.events;
+
+import com.mychess.my_chess_backend.services.room.RoomActorRegistry;
+import com.mychess.my_chess_backend.services.room.RoomNearCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Subscribes this instance to a room's Redis channel only while a local STOMP session is subscribed to the room,
+ * so an instance receives and decodes events only for the rooms it serves.
+ * Once the last local subscriber leaves, the room's near cache entry, actor state and recent events are dropped as
+ * well: without the channel nothing would tell them about moves made on other instances.
+ */
+@Service
+@Slf4j
+public class RoomSubscriptionTracker {
+  private static final String TOPIC_PREFIX = "/topic/room.";
+
+  private final RedisMessageListenerContainer listenerContainer;
+  private final RedisEventSubscriber subscriber;
+  private final RedisEventPublisher redisEventPublisher;
+  private final RoomNearCache nearCache;
+  private final RoomActorRegistry roomActors;
+  private final RoomEventRing roomEventRing;
+
+  // session id -> subscription id -> room code, and local subscriber count per room
+  private final Map<String, Map<String, String>> sessions = new HashMap<>();
+  private final Map<String, Integer> subscribers = new ConcurrentHashMap<>();
+
+  public RoomSubscriptionTracker(
+      RedisMessageListenerContainer listenerContainer,
+      RedisEventSubscriber subscriber,
+      RedisEventPublisher redisEventPublisher,
+      RoomNearCache nearCache,
+      RoomActorRegistry roomActors,
+      RoomEventRing roomEventRing,
+      MeterRegistry meterRegistry
+  ) {
+    this.listenerContainer = listenerContainer;
+    this.subscriber = subscriber;
+    this.redisEventPublisher = redisEventPublisher;
+    this.nearCache = nearCache;
+    this.roomActors = roomActors;
+    this.roomEventRing = roomEventRing;
+    Gauge.builder("room.pubsub.subscribed_rooms", subscribers, Map::size).register(meterRegistry);
+  }
+
+  /**
+   * Whether a local STOMP session follows the room, i.e. whether this instance hears about its moves elsewhere.
+   */
+  public boolean isLocal(String code) {
+    return subscribers.containsKey(code);
+  }
+
+  @EventListener
+  public synchronized void handleSubscribe(SessionSubscribeEvent event) {
+    StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+    String destination = headers.getDestination();
+    if (destination == null || !destination.startsWith(TOPIC_PREFIX)) { return; }
+
+    String code = destination.substring(TOPIC_PREFIX.length());
+    sessions.computeIfAbsent(headers.getSessionId(), id -> new HashMap<>()).put(headers.getSubscriptionId(), code);
+    if (subscribers.merge(code, 1, Integer::sum) == 1) {
+      listenerContainer.addMessageListener(subscriber, new ChannelTopic(redisEventPublisher.channel(code)));
+    }
+  }
+
+  @EventListener
+  public synchronized void handleUnsubscribe(SessionUnsubscribeEvent event) {
+    StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+    Map<String, String> subscriptions = sessions.get(headers.getSessionId());
+    if (subscriptions == null) { return; }
+
+    String code = subscriptions.remove(headers.getSubscriptionId());
+    if (subscriptions.isEmpty()) { sessions.remove(headers.getSessionId()); }
+    if (code != null) { release(code); }
+  }
+
+  @EventListener
+  public synchronized void handleDisconnect(SessionDisconnectEvent event) {
+    Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+    if (subscriptions != null) { subscriptions.values().forEach(this::release); }
+  }
+
+  private void release(String code) {
+    if (subscribers.merge(code, -1, Integer::sum) > 0) { return; }
+
+    subscribers.remove(code);
+    listenerContainer.removeMessageListener(subscriber, new ChannelTopic(redisEventPublisher.channel(code)));
+    nearCache.invalidate(code);
+    roomActors.invalidate(code);
+    roomEventRing.invalidate(code);
+    log.debug("No local subscribers left for room {}, unsubscribed from its channel", code);
+  }
+}
@@ -0,0 +1,72 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves rooms from the {@code captured_pieces} client string to the packed {@code captured} column.
+ * {@code ddl-auto=update} adds {@code captured} as 0 but never touches the old column, so this relaxes its NOT NULL
+ * if it still has one and fills {@code captured} from it for rooms that have no packed captures yet. Safe to run on every start and on
+ * several instances at once. The old column is still written alongside, see {@link com.mychess.my_chess_backend.models.Room};
+ * it can be dropped once no instance reads it.
+ */
+// The schema update runs while the entity manager factory starts, so the captured column exists by then
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class CapturedPiecesMigration {
+  private static final int ROOMS_PER_BATCH = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public CapturedPiecesMigration(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void migrate() {
+    // The ALTER takes an exclusive lock on rooms, so it only runs while the constraint is still there
+    List<String> nullable = jdbcTemplate.queryForList(
+        "SELECT is_nullable FROM information_schema.columns " +
+            "WHERE table_schema = current_schema() AND table_name = 'rooms' AND column_name = 'captured_pieces'",
+        String.class
+    );
+    if (nullable.contains("NO")) {
+      jdbcTemplate.execute("ALTER TABLE rooms ALTER COLUMN captured_pieces DROP NOT NULL");
+    }
+
+    List<Object[]> batch = new ArrayList<>(ROOMS_PER_BATCH);
+    int[] converted = { 0 };
+    // Only strings with a non-zero count can change anything
+    jdbcTemplate.query(
+        "SELECT id, captured_pieces FROM rooms WHERE captured = 0 AND captured_pieces ~ '[1-9]'",
+        row -> {
+          batch.add(new Object[] { CapturedPieceUtil.parse(row.getString("captured_pieces")), row.getObject("id") });
+          if (batch.size() == ROOMS_PER_BATCH) { converted[0] += flush(batch); }
+        }
+    );
+    converted[0] += flush(batch);
+
+    if (converted[0] > 0) {
+      log.info("Converted captured pieces of {} rooms to the packed format", converted[0]);
+    }
+  }
+
+  // The captured = 0 guard leaves rooms alone that recorded a capture since they were read
+  private int flush(List<Object[]> batch) {
+    if (batch.isEmpty()) { return 0; }
+    int converted = 0;
+    for (int count : jdbcTemplate.batchUpdate("UPDATE rooms SET captured = ? WHERE id = ? AND captured = 0", batch)) {
+      converted += Math.max(count, 0);
+    }
+    batch.clear();
+    return converted;
+  }
+}
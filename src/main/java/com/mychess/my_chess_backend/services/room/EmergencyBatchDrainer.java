@@ -1,52 +1,120 @@
 package com.mychess.my_chess_backend.services.room;
 
-import com.mychess.my_chess_backend.models.Room;
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
 import com.mychess.my_chess_backend.repositories.RoomRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * Replays the emergency journal into the database with AIMD batch sizing: the batch grows by a fixed step while
+ * the bulk update stays under the latency target and halves on a slow batch, a database error or a full
+ * {@code databaseWrites} bulkhead, which is shared with the live fallback path. After a failure the next run is
+ * delayed, doubling up to a cap, and the delay resets on the first healthy batch.
+ * Each instance drains its own journal, so the ShedLock lock is named after the instance: it only keeps a restarted
+ * instance from overlapping its predecessor on the same journal. Its database load is capped by the bulkhead.
+ */
 @Service
+@Slf4j
 public class EmergencyBatchDrainer {
+  private static final int MIN_BATCH = 10;
+  private static final int MAX_BATCH = 5000;
+  private static final int BATCH_STEP = 50;
+  private static final long MAX_BACKOFF_MILLIS = 30_000;
+  // Bounds one run so a long backlog still frees the scheduler thread regularly
+  private static final long RUN_BUDGET_MILLIS = 1_000;
+
   private final EmergencyBufferService emergencyBuffer;
   private final RoomRepository roomRepository;
+  private final Bulkhead databaseWrites;
+  private final long latencyTargetMillis;
+  private final Counter drained;
+
+  private volatile int batchSize = 50;
+  private volatile double drainRate;
+  private long backoffMillis;
+  private long pausedUntil;
 
-  public EmergencyBatchDrainer(EmergencyBufferService emergencyBuffer, RoomRepository roomRepository) {
+  public EmergencyBatchDrainer(
+      EmergencyBufferService emergencyBuffer,
+      RoomRepository roomRepository,
+      BulkheadRegistry bulkheadRegistry,
+      MeterRegistry meterRegistry,
+      @Value("${spring.app.emergency-journal.drain-latency-target-ms:200}") long latencyTargetMillis
+  ) {
     this.emergencyBuffer = emergencyBuffer;
     this.roomRepository = roomRepository;
+    this.databaseWrites = bulkheadRegistry.bulkhead("databaseWrites");
+    this.latencyTargetMillis = latencyTargetMillis;
+    this.drained = meterRegistry.counter("emergency_buffer.drained");
+    Gauge.builder("emergency_buffer.depth", emergencyBuffer, EmergencyBufferService::depth).register(meterRegistry);
+    Gauge.builder("emergency_buffer.batch_size", this, drainer -> drainer.batchSize).register(meterRegistry);
+    Gauge.builder("emergency_buffer.drain_rate", this, drainer -> drainer.drainRate)
+        .description("States written per second during the last run")
+        .register(meterRegistry);
   }
 
-  // Runs frequently to check if there are buffered moves to "trickle" into the DB
-  @Scheduled(fixedDelay = 2000)
-  @Transactional
+  @Scheduled(fixedDelay = 250)
+  @SchedulerLock(name = "emergencyDrain-#{@redisEventPublisher.serverId}", lockAtMostFor = "30s")
   public void drainEmergencyQueue() {
-    if (emergencyBuffer.getEmergencyQueue().isEmpty()) { return; }
+    long start = System.currentTimeMillis();
+    if (emergencyBuffer.isEmpty() || start < pausedUntil) { return; }
+
+    int written = 0;
+    while (!emergencyBuffer.isEmpty() && System.currentTimeMillis() - start < RUN_BUDGET_MILLIS) {
+      long batchStart = System.nanoTime();
+      try {
+        written += emergencyBuffer.drain(batchSize, batch -> databaseWrites.executeRunnable(() -> write(batch)));
+      } catch (BulkheadFullException | DataAccessException e) {
+        backOff(e);
+        break;
+      }
 
-    List<EmergencyBufferService.QueueItem> batch = new ArrayList<>();
-    emergencyBuffer.getEmergencyQueue().drainTo(batch, 50);
+      long latencyMillis = (System.nanoTime() - batchStart) / 1_000_000;
+      if (latencyMillis > latencyTargetMillis) {
+        batchSize = Math.max(MIN_BATCH, batchSize / 2);
+        break;
+      }
+      batchSize = Math.min(MAX_BATCH, batchSize + BATCH_STEP);
+      backoffMillis = 0;
+    }
 
-    Map<String, EmergencyBufferService.QueueItem> latestStates = batch.stream()
-        .collect(Collectors.toMap(
-            EmergencyBufferService.QueueItem::code,
-            item -> item,
-            (existing, replacement) -> replacement
-        ));
+    long elapsed = Math.max(1, System.currentTimeMillis() - start);
+    drainRate = written * 1000.0 / elapsed;
+    drained.increment(written);
+  }
 
-    List<Room> rooms = roomRepository.findAllByCodeIn(latestStates.keySet());
+  private void write(List<EmergencyBufferService.QueueItem> batch) {
+    // Keep the furthest state per room; the bulk update also refuses to move a room backwards
+    Map<String, MoveCache> latestStates = new HashMap<>();
+    for (EmergencyBufferService.QueueItem item : batch) {
+      latestStates.merge(item.code(), item.cache(), (existing, replacement) ->
+          sequenceOf(replacement) >= sequenceOf(existing) ? replacement : existing);
+    }
+    roomRepository.updateStates(latestStates);
+  }
 
-    rooms.forEach(room -> {
-      var latest = latestStates.get(room.getCode()).cache();
-      room.setFen(latest.getFen());
-      room.setCapturedPieces(latest.getCapturedPieces());
-      room.setGameStatus(latest.getGameStatus());
-      room.setLastActivity(latest.getLastActivity());
-    });
+  private void backOff(RuntimeException e) {
+    batchSize = Math.max(MIN_BATCH, batchSize / 2);
+    backoffMillis = backoffMillis == 0 ? 500 : Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+    pausedUntil = System.currentTimeMillis() + backoffMillis;
+    log.warn("Emergency drain backing off for {} ms, batch size now {}: {}", backoffMillis, batchSize, e.getMessage());
+  }
 
-    roomRepository.saveAll(rooms);
+  private static long sequenceOf(MoveCache cache) {
+    return cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L;
   }
-}
\ No newline at end of file
+}
@@ -1,18 +1,139 @@
 package com.mychess.my_chess_backend.services.room;
 
 import com.mychess.my_chess_backend.dtos.redis.MoveCache;
-import lombok.Getter;
+import com.mychess.my_chess_backend.exceptions.room.SystemOverloadException;
+import com.mychess.my_chess_backend.utils.RoomBinaryCodec;
+import com.mychess.my_chess_backend.utils.SegmentJournal;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.util.concurrent.LinkedBlockingQueue;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Last resort for room states neither Redis nor the database accepted. States go to a {@link SegmentJournal}
+ * on local disk, so they survive a restart, and {@link EmergencyBatchDrainer} replays them into the database.
+ * A record is the room code followed by the state in the {@link RoomBinaryCodec} format. Records that can't be
+ * decoded, e.g. after a codec change across a deploy, are moved to a {@code dead-letter} directory next to the
+ * segments instead of holding up the rest of the journal.
+ */
 @Service
+@Slf4j
 public class EmergencyBufferService {
   public record QueueItem(String code, MoveCache cache) {}
 
-  @Getter
-  public final LinkedBlockingQueue<QueueItem> emergencyQueue = new LinkedBlockingQueue<>(100000);
+  private final RoomBinaryCodec codec;
+  private final SegmentJournal journal;
+  private final Path deadLetterDirectory;
+
+  public EmergencyBufferService(
+      RoomBinaryCodec codec,
+      @Value("${spring.app.emergency-journal.dir}") String directory,
+      @Value("${spring.app.emergency-journal.segment-size-mb:16}") int segmentSizeMb,
+      @Value("${spring.app.emergency-journal.max-segments:64}") int maxSegments
+  ) throws IOException {
+    this.codec = codec;
+    this.journal = new SegmentJournal(Path.of(directory), segmentSizeMb * 1024 * 1024, maxSegments);
+    this.deadLetterDirectory = Path.of(directory, "dead-letter");
+
+    if (journal.recoveredRecords() > 0) {
+      log.warn("Recovered {} buffered room states from the emergency journal in {}", journal.recoveredRecords(), directory);
+    }
+  }
 
+  /**
+   * Journals the state. Throws {@link SystemOverloadException} when the journal is full or can't be written.
+   */
   public void bufferMove(String code, MoveCache cache) {
-    emergencyQueue.offer(new QueueItem(code, cache));
+    byte[] codeBytes = code.getBytes(StandardCharsets.UTF_8);
+    byte[] state = codec.encode(cache);
+    byte[] record = ByteBuffer.allocate(2 + codeBytes.length + state.length)
+        .putShort((short) codeBytes.length)
+        .put(codeBytes)
+        .put(state)
+        .array();
+
+    try {
+      journal.append(record);
+    } catch (IOException | IllegalStateException e) {
+      throw new SystemOverloadException("Server is currently at maximum capacity. Please try again in a moment.", e);
+    }
+  }
+
+  /**
+   * Hands up to {@code maxItems} of the oldest buffered states to {@code sink} and drops them once it returns.
+   * If {@code sink} throws, the same states are handed out again next time. Records that can't be decoded are
+   * dead-lettered and dropped with the batch. Returns the number of states handed out.
+   */
+  public int drain(int maxItems, Consumer<List<QueueItem>> sink) {
+    SegmentJournal.Batch batch = journal.read(maxItems);
+    if (batch.records().isEmpty()) { return 0; }
+
+    List<QueueItem> items = new ArrayList<>(batch.records().size());
+    for (byte[] record : batch.records()) {
+      try {
+        items.add(decode(record));
+      } catch (RuntimeException e) {
+        deadLetter(record, e);
+      }
+    }
+
+    if (!items.isEmpty()) { sink.accept(items); }
+    try {
+      journal.commit(batch);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return items.size();
+  }
+
+  private QueueItem decode(byte[] record) {
+    ByteBuffer in = ByteBuffer.wrap(record);
+    byte[] codeBytes = new byte[in.getShort()];
+    in.get(codeBytes);
+    byte[] state = new byte[in.remaining()];
+    in.get(state);
+    return new QueueItem(new String(codeBytes, StandardCharsets.UTF_8), (MoveCache) codec.decode(state));
+  }
+
+  // Kept as written, so it can still be replayed by hand with a codec that reads it
+  private void deadLetter(byte[] record, RuntimeException cause) {
+    try {
+      Files.createDirectories(deadLetterDirectory);
+      Path file = Files.write(deadLetterDirectory.resolve("record-" + System.nanoTime() + ".bin"), record);
+      log.error("Undecodable emergency journal record of {} bytes moved to {}: {}", record.length, file, cause.toString());
+    } catch (IOException e) {
+      log.error("Dropping undecodable emergency journal record of {} bytes ({}), dead-lettering failed: {}",
+          record.length, cause.toString(), e.getMessage());
+    }
+  }
+
+  public boolean isEmpty() {
+    return journal.isEmpty();
+  }
+
+  public long depth() {
+    return journal.pendingRecords();
+  }
+
+  // Group commit: every append since the last run shares one fsync
+  @Scheduled(fixedDelay = 50)
+  public void flush() {
+    journal.flush();
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    journal.close();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,221 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.models.GameMove;
+import com.mychess.my_chess_backend.repositories.GameMoveRepository;
+import com.mychess.my_chess_backend.utils.SegmentJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends committed moves to the {@code game_moves} log off the move path: {@link #record} only journals the move
+ * to a {@link SegmentJournal} on local disk, and one background thread writes whatever has piled up with multi-row
+ * inserts, so bursts turn into bigger batches rather than more statements. Moves leave the journal only once they
+ * are in the database, so they survive a restart and a database outage. A batch the database rejects is retried
+ * row by row, and rows rejected on their own are logged and skipped instead of holding up the log.
+ */
+@Service
+@Slf4j
+public class GameMoveWriter {
+  // One INSERT statement per batch, so a failed batch is retried without duplicating part of it
+  private static final int MAX_BATCH = GameMoveRepository.MOVES_PER_STATEMENT;
+  private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+  private final GameMoveRepository gameMoveRepository;
+  private final SegmentJournal journal;
+  private final Counter written;
+  private final Counter rejected;
+  private final Counter unjournaled;
+  private volatile boolean running = true;
+  private volatile Thread writer;
+
+  public GameMoveWriter(
+      GameMoveRepository gameMoveRepository,
+      MeterRegistry meterRegistry,
+      @Value("${spring.app.move-log.journal-dir}") String directory,
+      @Value("${spring.app.move-log.segment-size-mb:16}") int segmentSizeMb,
+      @Value("${spring.app.move-log.max-segments:64}") int maxSegments
+  ) throws IOException {
+    this.gameMoveRepository = gameMoveRepository;
+    this.journal = new SegmentJournal(Path.of(directory), segmentSizeMb * 1024 * 1024, maxSegments);
+    this.written = meterRegistry.counter("game_moves.written");
+    this.rejected = meterRegistry.counter("game_moves.rejected");
+    this.unjournaled = meterRegistry.counter("game_moves.unjournaled");
+    Gauge.builder("game_moves.queue_depth", journal, SegmentJournal::pendingRecords).register(meterRegistry);
+
+    if (journal.recoveredRecords() > 0) {
+      log.info("Recovered {} unwritten moves from the move log journal in {}", journal.recoveredRecords(), directory);
+    }
+  }
+
+  @PostConstruct
+  public void start() {
+    gameMoveRepository.createTableIfMissing();
+    createUpcomingPartitions();
+    writer = Thread.ofPlatform().name("game-move-writer").daemon().start(this::writeLoop);
+  }
+
+  /**
+   * Journals the move for the writer. When the journal is full or can't be written, the move is inserted
+   * right away instead, on the caller's thread.
+   */
+  public void record(GameMove move) {
+    try {
+      journal.append(encode(move));
+      LockSupport.unpark(writer);
+    } catch (IOException | IllegalStateException e) {
+      unjournaled.increment();
+      insertDirectly(move, e);
+    }
+  }
+
+  private void insertDirectly(GameMove move, Exception journalFailure) {
+    try {
+      gameMoveRepository.insertAll(List.of(move));
+      written.increment();
+    } catch (RuntimeException e) {
+      // Logged in full, so the move can still be restored by hand
+      log.error("Move {} of room {} lost from the move log: {} (promotion choice {}, played at {}); journal: {}, insert: {}",
+          move.moveSequence(), move.roomCode(), move.move(), move.promotionChoice(), move.playedAt(),
+          journalFailure.getMessage(), e.getMessage());
+    }
+  }
+
+  // This month's and next month's partitions always exist before their first move
+  @Scheduled(cron = "0 0 3 * * *")
+  public void createUpcomingPartitions() {
+    YearMonth now = YearMonth.now();
+    gameMoveRepository.createPartitionIfMissing(now);
+    gameMoveRepository.createPartitionIfMissing(now.plusMonths(1));
+  }
+
+  // Group commit: every append since the last run shares one fsync
+  @Scheduled(fixedDelay = 50)
+  public void flush() {
+    journal.flush();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException, IOException {
+    running = false;
+    if (writer != null) {
+      LockSupport.unpark(writer);
+      writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    // Whatever is left is written after the next start
+    journal.close();
+  }
+
+  // Shutting down leaves unwritten moves in the journal for the next start
+  private void writeLoop() {
+    long backoffMillis = 0;
+
+    while (running) {
+      SegmentJournal.Batch batch = journal.read(MAX_BATCH);
+      if (batch.records().isEmpty()) {
+        LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+        continue;
+      }
+
+      try {
+        write(batch);
+        backoffMillis = 0;
+      } catch (IOException | RuntimeException e) {
+        if (!running) { return; }
+        backoffMillis = backoffMillis == 0 ? 100 : Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+        log.warn("Move log write of {} moves failed, retrying in {} ms: {}", batch.records().size(), backoffMillis, e.getMessage());
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+      }
+    }
+  }
+
+  private void write(SegmentJournal.Batch batch) throws IOException {
+    List<GameMove> moves = new ArrayList<>(batch.records().size());
+    for (byte[] record : batch.records()) {
+      GameMove move = decode(record);
+      if (move != null) { moves.add(move); }
+    }
+
+    try {
+      gameMoveRepository.insertAll(moves);
+      written.increment(moves.size());
+    } catch (DataIntegrityViolationException e) {
+      log.warn("Move log batch of {} moves rejected, writing it row by row: {}", moves.size(), e.getMessage());
+      writeOneByOne(moves);
+    }
+    journal.commit(batch);
+  }
+
+  /**
+   * Writes the moves one statement each, skipping the ones the database rejects. Any other failure takes the
+   * moves written so far out of the journal and rethrows, so the rest is retried later without duplicates.
+   */
+  private void writeOneByOne(List<GameMove> moves) throws IOException {
+    for (int i = 0; i < moves.size(); i++) {
+      GameMove move = moves.get(i);
+      try {
+        gameMoveRepository.insertAll(List.of(move));
+        written.increment();
+      } catch (DataIntegrityViolationException e) {
+        rejected.increment();
+        log.error("Move {} of room {} rejected by the database, skipped: {} (promotion choice {}, played at {}): {}",
+            move.moveSequence(), move.roomCode(), move.move(), move.promotionChoice(), move.playedAt(), e.getMessage());
+      } catch (RuntimeException e) {
+        if (i > 0) { journal.commit(journal.read(i)); }
+        throw e;
+      }
+    }
+  }
+
+  // Room code, sequence, packed move, promotion-choice flag and played-at time as UTC epoch seconds and nanos
+  private static byte[] encode(GameMove move) {
+    byte[] code = move.roomCode().getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(1 + code.length + Long.BYTES + Short.BYTES + 1 + Long.BYTES + Integer.BYTES)
+        .put((byte) code.length)
+        .put(code)
+        .putLong(move.moveSequence())
+        .putShort(move.move())
+        .put((byte) (move.promotionChoice() ? 1 : 0))
+        .putLong(move.playedAt().toEpochSecond(ZoneOffset.UTC))
+        .putInt(move.playedAt().getNano())
+        .array();
+  }
+
+  private GameMove decode(byte[] record) {
+    try {
+      ByteBuffer in = ByteBuffer.wrap(record);
+      byte[] code = new byte[in.get()];
+      in.get(code);
+      return new GameMove(
+          new String(code, StandardCharsets.UTF_8),
+          in.getLong(),
+          in.getShort(),
+          in.get() == 1,
+          LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC)
+      );
+    } catch (RuntimeException e) {
+      rejected.increment();
+      log.error("Skipping unreadable move log journal record of {} bytes: {}", record.length, e.toString());
+      return null;
+    }
+  }
+}
@@ -2,18 +2,36 @@ package com.mychess.my_chess_backend.services.room;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.dtos.redis.RoomStateField;
 import com.mychess.my_chess_backend.exceptions.room.RoomNotFoundException;
-import com.mychess.my_chess_backend.exceptions.room.SystemOverloadException;
-import com.mychess.my_chess_backend.models.Room;
 import com.mychess.my_chess_backend.repositories.RoomRepository;
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import com.mychess.my_chess_backend.services.events.RoomSubscriptionTracker;
+import com.mychess.my_chess_backend.utils.GameOutcomeUtils;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -23,65 +41,366 @@ public class RedisGameService {
   private final StringRedisTemplate stringRedisTemplate;
   private final RoomRepository roomRepository;
   private final ObjectMapper objectMapper;
+  private final RoomNearCache nearCache;
+  private final EmergencyBufferService emergencyBuffer;
+  private final RoomSubscriptionTracker subscriptions;
+  private final RoomStateRebuilder roomStateRebuilder;
+  // Applied by hand: the Redis fallbacks run on this instance, not through its proxy, so annotations would be skipped
+  private final RateLimiter databaseWriteRate;
+  private final Bulkhead databaseWriteSlots;
 
   private static final String ROOM_KEY_PREFIX = "room_cache:";
+  // Hash mode uses its own prefix, so switching modes never reads a key of the other type
+  private static final String ROOM_HASH_KEY_PREFIX = "room_state:";
   private static final String SYNC_SET_KEY = "rooms_to_sync";
+  private static final long ACTIVE_GAME_TTL_MINUTES = 24 * 60;
+  // Finished games only need to outlive the next sync pass and any in-flight late moves
+  private static final long FINISHED_GAME_TTL_MINUTES = 10;
+  private static final RedisScript<byte[]> COMMIT_MOVE_SCRIPT =
+      RedisScript.of(new ClassPathResource("redis/commit_move.lua"), byte[].class);
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> COMMIT_MOVE_HASH_SCRIPT =
+      RedisScript.of(new ClassPathResource("redis/commit_move_hash.lua"), List.class);
+  private static final RoomStateField[] ALL_FIELDS = RoomStateField.values();
+  // Returned by the commit scripts' callers when the room's key is gone
+  private static final MoveCache MISSING = new MoveCache();
+
+  // "json" keeps each room as one JSON value, "hash" as a Redis hash with one field per MoveCache property
+  @Value("${spring.app.room-storage:json}")
+  private String roomStorage;
 
   public RedisGameService(
       RedisTemplate<String, Object> redisTemplate,
       StringRedisTemplate stringRedisTemplate,
       RoomRepository roomRepository,
-      ObjectMapper objectMapper
+      ObjectMapper objectMapper,
+      RoomNearCache nearCache,
+      EmergencyBufferService emergencyBuffer,
+      RoomSubscriptionTracker subscriptions,
+      RoomStateRebuilder roomStateRebuilder,
+      RateLimiterRegistry rateLimiterRegistry,
+      BulkheadRegistry bulkheadRegistry
   ) {
     this.redisTemplate = redisTemplate;
     this.stringRedisTemplate = stringRedisTemplate;
     this.roomRepository = roomRepository;
     this.objectMapper = objectMapper;
+    this.nearCache = nearCache;
+    this.emergencyBuffer = emergencyBuffer;
+    this.subscriptions = subscriptions;
+    this.roomStateRebuilder = roomStateRebuilder;
+    this.databaseWriteRate = rateLimiterRegistry.rateLimiter("databaseWrites");
+    this.databaseWriteSlots = bulkheadRegistry.bulkhead("databaseWrites");
   }
 
   @CircuitBreaker(name = "redisService", fallbackMethod = "saveDirectlyToDatabase")
   public void saveMoveCache(String code, MoveCache cache) {
-    String key = ROOM_KEY_PREFIX + code;
-    redisTemplate.opsForValue().set(key, cache, 24, TimeUnit.HOURS);
-    stringRedisTemplate.opsForSet().add(SYNC_SET_KEY, code);
+    if (isHashStorage()) {
+      saveHash(code, cache);
+    } else {
+      String key = ROOM_KEY_PREFIX + code;
+      redisTemplate.opsForValue().set(key, cache, ttlMinutes(cache), TimeUnit.MINUTES);
+      stringRedisTemplate.opsForSet().add(SYNC_SET_KEY, code);
+    }
+    cacheLocally(code, cache);
+  }
+
+  /**
+   * Writes the state, refreshes its TTL, marks the room for the database sync and publishes {@code event} in one
+   * round trip, but only while the stored move sequence still equals {@code expectedSequence}.
+   * In hash mode only the {@code changed} fields are written. Returns null once committed, otherwise the state
+   * currently stored. A key that expired or was evicted is recreated from {@code cache} unless the state rebuilt from
+   * the database and the move log is already past {@code expectedSequence}, in which case that state is returned as
+   * the current one. A rebuilt state behind it only means the log writer has not caught up with the moves the caller
+   * already validated against.
+   */
+  @CircuitBreaker(name = "redisService", fallbackMethod = "commitDirectlyToDatabase")
+  public MoveCache commitMove(
+      String code,
+      MoveCache cache,
+      long expectedSequence,
+      Set<RoomStateField> changed,
+      String channel,
+      byte[] event
+  ) {
+    MoveCache current = isHashStorage() ?
+        commitHash(code, cache, expectedSequence, changed, false, channel, event) :
+        commitJson(code, cache, expectedSequence, false, channel, event);
+
+    if (current == MISSING) {
+      MoveCache rebuilt = roomStateRebuilder.rebuild(roomRepository.findByCode(code).orElseThrow(() -> new RoomNotFoundException(code)));
+      long rebuiltSequence = rebuilt.getMoveSequence() != null ? rebuilt.getMoveSequence() : 0L;
+      if (rebuiltSequence > expectedSequence) {
+        current = rebuilt;
+      } else {
+        // Recreated in full, and still refused if another writer recreated it first
+        current = isHashStorage() ?
+            commitHash(code, cache, expectedSequence, EnumSet.allOf(RoomStateField.class), true, channel, event) :
+            commitJson(code, cache, expectedSequence, true, channel, event);
+      }
+    }
+
+    // Either way the near cache learns the newest state Redis holds
+    cacheLocally(code, current == null ? cache : current);
+    return current;
   }
 
+  /**
+   * Fallback for {@link #commitMove} when Redis is unavailable. Without Redis there is no stored sequence to compare,
+   * so the per-room actor is the only ordering left.
+   */
+  public MoveCache commitDirectlyToDatabase(
+      String code,
+      MoveCache cache,
+      long expectedSequence,
+      Set<RoomStateField> changed,
+      String channel,
+      byte[] event,
+      Throwable t
+  ) {
+    // Redis may still hold an older state that the near cache would otherwise keep serving next to it
+    nearCache.invalidate(code);
+    saveDirectlyToDatabase(code, cache, t);
+    return null;
+  }
+
+  /**
+   * Served from the {@link RoomNearCache} when it has the room, otherwise read from Redis and kept there.
+   * Only rooms with local subscribers are cached, since only their channels tell this instance about remote moves.
+   */
   public MoveCache getMoveCache(String code) {
-    String key = ROOM_KEY_PREFIX + code;
-    Object value = redisTemplate.opsForValue().get(key);
+    MoveCache cache = subscriptions.isLocal(code) ? nearCache.get(code) : null;
+    if (cache != null) { return cache; }
 
-    if (value == null) { return null; }
+    cache = isHashStorage() ? getHash(code, ALL_FIELDS) : getJson(code);
+    if (cache != null) { cacheLocally(code, cache); }
+    return cache;
+  }
 
-    return objectMapper.convertValue(value, MoveCache.class);
+  /**
+   * Reads only {@code fields} in hash mode, leaving the rest of the returned cache unset.
+   * JSON mode has no partial reads and returns the whole state, as does a near cache hit.
+   */
+  public MoveCache getMoveCache(String code, RoomStateField... fields) {
+    if (!isHashStorage()) { return getMoveCache(code); }
+
+    MoveCache cache = subscriptions.isLocal(code) ? nearCache.get(code) : null;
+    return cache != null ? cache : getHash(code, fields);
   }
 
   /**
-   * Fallback method when Redis is unavailable, saves move cache directly to  database.
+   * Reads the state of every room in {@code codes} in one round trip, straight from Redis: one MGET in JSON mode,
+   * a pipelined HMGET per room in hash mode. Rooms without a state are left out of the result.
+   */
+  public Map<String, MoveCache> getMoveCaches(List<String> codes) {
+    Map<String, MoveCache> caches = new HashMap<>();
+    if (codes.isEmpty()) { return caches; }
+
+    if (isHashStorage()) {
+      byte[][] names = new byte[ALL_FIELDS.length][];
+      for (int i = 0; i < ALL_FIELDS.length; i++) { names[i] = ALL_FIELDS[i].getBytes(); }
+
+      List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        for (String code : codes) {
+          connection.hashCommands().hMGet(utf8(ROOM_HASH_KEY_PREFIX + code), names);
+        }
+        return null;
+      }, RedisSerializer.byteArray());
+
+      for (int i = 0; i < codes.size(); i++) {
+        @SuppressWarnings("unchecked")
+        List<byte[]> values = (List<byte[]>) results.get(i);
+        if (values == null || values.stream().allMatch(Objects::isNull)) { continue; }
+
+        MoveCache cache = new MoveCache();
+        for (int f = 0; f < ALL_FIELDS.length; f++) {
+          RoomStateHashCodec.decode(ALL_FIELDS[f], values.get(f), cache);
+        }
+        caches.put(codes.get(i), cache);
+      }
+      return caches;
+    }
+
+    List<Object> values = redisTemplate.opsForValue().multiGet(codes.stream().map(code -> ROOM_KEY_PREFIX + code).toList());
+    if (values == null) { return caches; }
+
+    for (int i = 0; i < codes.size(); i++) {
+      if (values.get(i) != null) { caches.put(codes.get(i), objectMapper.convertValue(values.get(i), MoveCache.class)); }
+    }
+    return caches;
+  }
+
+  /**
+   * Fallback method when Redis is unavailable, saves move cache directly to database within the
+   * {@code databaseWrites} rate limit and bulkhead. The write is sequence-guarded, so it never moves a room back.
+   * A write that is not permitted or fails goes to {@link #rejectOverload} instead.
    */
-  @RateLimiter(name = "databaseWrites", fallbackMethod = "rejectOverload")
-  @Bulkhead(name = "databaseWrites", fallbackMethod = "rejectOverload")
   public void saveDirectlyToDatabase(String code, MoveCache cache, Throwable t) {
     log.warn("Redis unavailable, saving move directly to database for room: {}. Error: {}", code, t.getMessage());
 
+    Runnable write = RateLimiter.decorateRunnable(
+        databaseWriteRate,
+        Bulkhead.decorateRunnable(databaseWriteSlots, () -> roomRepository.updateStates(Map.of(code, cache)))
+    );
     try {
-      Room room = roomRepository.findByCode(code).orElseThrow(() -> new RoomNotFoundException(code));
-      room.setFen(cache.getFen());
-      room.setCapturedPieces(cache.getCapturedPieces());
-      room.setGameStatus(cache.getGameStatus());
-      room.setLastActivity(cache.getLastActivity());
-      room.setMoveSequence(cache.getMoveSequence());
-
-      roomRepository.save(room);
-
+      write.run();
       log.info("Move saved directly to database for room: {}", code);
-    } catch (Exception e) {
+    } catch (RequestNotPermitted | BulkheadFullException e) {
+      rejectOverload(code, cache, e);
+    } catch (RuntimeException e) {
       log.error("Failed to save move to database for room: {}. Error: {}", code, e.getMessage(), e);
-      throw new RuntimeException("Failed to persist move after Redis failure", e);
+      rejectOverload(code, cache, e);
     }
   }
 
+  /**
+   * Fallback when the database write is rate limited, saturated or failing: the state goes to the emergency journal
+   * and reaches the database later. Only a full journal rejects the move.
+   */
   public void rejectOverload(String code, MoveCache cache, Throwable t) {
-    log.error("Database overloaded, rejecting move save for room: {}. Reason: {}", code, t.getMessage());
-    throw new SystemOverloadException("Server is currently at maximum capacity. Please try again in a moment.", t);
+    log.warn("Database unavailable or overloaded, journaling move for room: {}. Reason: {}", code, t.getMessage());
+    emergencyBuffer.bufferMove(code, cache);
+  }
+
+  private void cacheLocally(String code, MoveCache cache) {
+    if (subscriptions.isLocal(code)) { nearCache.put(code, cache); }
+  }
+
+  private boolean isHashStorage() {
+    return "hash".equals(roomStorage);
+  }
+
+  private void saveHash(String code, MoveCache cache) {
+    byte[] key = utf8(ROOM_HASH_KEY_PREFIX + code);
+    Map<byte[], byte[]> fields = new HashMap<>();
+    for (RoomStateField field : ALL_FIELDS) {
+      byte[] value = RoomStateHashCodec.encode(field, cache);
+      if (value != null) { fields.put(field.getBytes(), value); }
+    }
+
+    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      connection.keyCommands().del(key);
+      connection.hashCommands().hMSet(key, fields);
+      connection.keyCommands().expire(key, TimeUnit.MINUTES.toSeconds(ttlMinutes(cache)));
+      connection.setCommands().sAdd(utf8(SYNC_SET_KEY), utf8(code));
+      return null;
+    });
+  }
+
+  private MoveCache getHash(String code, RoomStateField... fields) {
+    byte[][] names = new byte[fields.length][];
+    for (int i = 0; i < fields.length; i++) { names[i] = fields[i].getBytes(); }
+
+    List<byte[]> values = redisTemplate.execute(
+        (RedisCallback<List<byte[]>>) connection -> connection.hashCommands().hMGet(utf8(ROOM_HASH_KEY_PREFIX + code), names)
+    );
+    if (values == null || values.stream().allMatch(Objects::isNull)) { return null; }
+
+    MoveCache cache = new MoveCache();
+    for (int i = 0; i < fields.length; i++) {
+      RoomStateHashCodec.decode(fields[i], values.get(i), cache);
+    }
+    return cache;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private MoveCache commitHash(
+      String code,
+      MoveCache cache,
+      long expectedSequence,
+      Set<RoomStateField> changed,
+      boolean recreate,
+      String channel,
+      byte[] event
+  ) {
+    List<byte[]> deletes = new ArrayList<>();
+    List<byte[]> pairs = new ArrayList<>();
+    for (RoomStateField field : changed) {
+      byte[] value = RoomStateHashCodec.encode(field, cache);
+      if (value == null) {
+        deletes.add(field.getBytes());
+      } else {
+        pairs.add(field.getBytes());
+        pairs.add(value);
+      }
+    }
+
+    List<byte[]> args = new ArrayList<>(7 + deletes.size() + pairs.size());
+    args.add(utf8(Long.toString(expectedSequence)));
+    args.add(utf8(Long.toString(TimeUnit.MINUTES.toSeconds(ttlMinutes(cache)))));
+    args.add(utf8(code));
+    args.add(utf8(channel));
+    args.add(event != null ? event : new byte[0]);
+    args.add(utf8(recreate ? "1" : "0"));
+    args.add(utf8(Integer.toString(deletes.size())));
+    args.addAll(deletes);
+    args.addAll(pairs);
+
+    List<byte[]> current = redisTemplate.execute(
+        COMMIT_MOVE_HASH_SCRIPT,
+        RedisSerializer.byteArray(),
+        (RedisSerializer) RedisSerializer.byteArray(),
+        List.of(ROOM_HASH_KEY_PREFIX + code, SYNC_SET_KEY),
+        args.toArray()
+    );
+
+    if (current == null) { return null; }
+    // Empty when the hash no longer exists
+    if (current.isEmpty()) { return MISSING; }
+
+    // Flat field/value pairs from HGETALL
+    MoveCache stored = new MoveCache();
+    for (int i = 0; i + 1 < current.size(); i += 2) {
+      RoomStateField field = RoomStateField.fromValue(new String(current.get(i), StandardCharsets.UTF_8));
+      if (field != null) { RoomStateHashCodec.decode(field, current.get(i + 1), stored); }
+    }
+    return stored;
+  }
+
+  private MoveCache commitJson(
+      String code,
+      MoveCache cache,
+      long expectedSequence,
+      boolean recreate,
+      String channel,
+      byte[] event
+  ) {
+    @SuppressWarnings("unchecked")
+    RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+
+    byte[] current = redisTemplate.execute(
+        COMMIT_MOVE_SCRIPT,
+        RedisSerializer.byteArray(),
+        RedisSerializer.byteArray(),
+        List.of(ROOM_KEY_PREFIX + code, SYNC_SET_KEY),
+        utf8(Long.toString(expectedSequence)),
+        valueSerializer.serialize(cache),
+        utf8(Long.toString(TimeUnit.MINUTES.toSeconds(ttlMinutes(cache)))),
+        utf8(code),
+        utf8(channel),
+        event != null ? event : new byte[0],
+        utf8(recreate ? "1" : "0")
+    );
+
+    if (current == null) { return null; }
+    if (current.length == 0) { return MISSING; }
+
+    return objectMapper.convertValue(valueSerializer.deserialize(current), MoveCache.class);
+  }
+
+  private MoveCache getJson(String code) {
+    Object value = redisTemplate.opsForValue().get(ROOM_KEY_PREFIX + code);
+
+    if (value == null) { return null; }
+
+    return objectMapper.convertValue(value, MoveCache.class);
+  }
+
+  private static long ttlMinutes(MoveCache cache) {
+    return GameOutcomeUtils.isFinished(cache.getGameStatus()) ? FINISHED_GAME_TTL_MINUTES : ACTIVE_GAME_TTL_MINUTES;
+  }
+
+  private static byte[] utf8(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
   }
 }
\ No newline at end of file
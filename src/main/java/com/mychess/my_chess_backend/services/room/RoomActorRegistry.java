@@ -0,0 +1,122 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * One mailbox per room: commands for a room run one at a time on a virtual thread, so the read-modify-write
+ * of a move can't interleave with another move for the same room. Different rooms run in parallel.
+ * The room's {@link MoveCache} stays on the actor between commands, so most moves skip the Redis read.
+ */
+@Component
+@Slf4j
+public class RoomActorRegistry {
+  private static final long IDLE_EVICTION_MILLIS = 10 * 60 * 1000;
+
+  private final ConcurrentHashMap<String, RoomActor> actors = new ConcurrentHashMap<>();
+
+  /**
+   * Runs {@code command} on the room's actor and waits for it. Exceptions are rethrown to the caller,
+   * and the actor drops its state so the next command reloads it.
+   */
+  public <T> T call(String code, Function<RoomActor, T> command) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    actors.compute(code, (key, actor) -> {
+      RoomActor target = actor != null ? actor : new RoomActor(key);
+      target.enqueue(() -> {
+        try {
+          result.complete(command.apply(target));
+        } catch (Throwable t) {
+          target.setState(null);
+          result.completeExceptionally(t);
+        }
+      });
+      return target;
+    });
+
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) { throw runtimeException; }
+      if (e.getCause() instanceof Error error) { throw error; }
+      throw e;
+    }
+  }
+
+  /**
+   * Drops the in-memory state of a room, e.g. after another server instance moved in it.
+   */
+  public void invalidate(String code) {
+    actors.computeIfPresent(code, (key, actor) -> {
+      actor.enqueue(() -> actor.setState(null));
+      return actor;
+    });
+  }
+
+  @Scheduled(fixedDelay = 60000)
+  public void evictIdleActors() {
+    long now = System.currentTimeMillis();
+    actors.forEach((code, actor) -> actors.computeIfPresent(code, (key, current) -> current.isIdle(now) ? null : current));
+  }
+
+  public int size() {
+    return actors.size();
+  }
+
+  public static class RoomActor {
+    @Getter
+    private final String code;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile long lastActive = System.currentTimeMillis();
+
+    // Only read and written by the actor's own commands
+    @Getter
+    @Setter
+    private MoveCache state;
+
+    RoomActor(String code) {
+      this.code = code;
+    }
+
+    void enqueue(Runnable command) {
+      mailbox.add(command);
+      lastActive = System.currentTimeMillis();
+      if (running.compareAndSet(false, true)) {
+        Thread.ofVirtual().name("room-" + code).start(this::drain);
+      }
+    }
+
+    private void drain() {
+      do {
+        Runnable command;
+        while ((command = mailbox.poll()) != null) {
+          try {
+            command.run();
+          } catch (Throwable t) {
+            log.error("Room {} command failed: {}", code, t.getMessage(), t);
+          }
+        }
+        lastActive = System.currentTimeMillis();
+        running.set(false);
+        // A command enqueued between the last poll and the reset above would otherwise sit unprocessed
+      } while (!mailbox.isEmpty() && running.compareAndSet(false, true));
+    }
+
+    boolean isIdle(long now) {
+      return !running.get() && mailbox.isEmpty() && now - lastActive > IDLE_EVICTION_MILLIS;
+    }
+  }
+}
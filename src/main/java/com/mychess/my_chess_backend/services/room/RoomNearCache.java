@@ -0,0 +1,135 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of recently used room state in front of Redis, keyed by room code.
+ * Entries are ordered by move sequence: a write never replaces a newer entry, and a move event from another
+ * instance leaves a floor behind so a Redis read that raced with it can't put the older state back.
+ * Callers always get their own copy, so mutating a returned cache never changes the cached one.
+ */
+@Component
+@Slf4j
+public class RoomNearCache {
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final int maxSize;
+  private final long idleMillis;
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  public RoomNearCache(
+      MeterRegistry meterRegistry,
+      @Value("${spring.app.near-cache.max-size:10000}") int maxSize,
+      @Value("${spring.app.near-cache.idle-seconds:600}") long idleSeconds
+  ) {
+    this.maxSize = maxSize;
+    this.idleMillis = idleSeconds * 1000;
+    this.hits = meterRegistry.counter("room.near_cache.requests", "result", "hit");
+    this.misses = meterRegistry.counter("room.near_cache.requests", "result", "miss");
+    this.evictions = meterRegistry.counter("room.near_cache.evictions");
+    Gauge.builder("room.near_cache.size", entries, ConcurrentHashMap::size).register(meterRegistry);
+  }
+
+  public MoveCache get(String code) {
+    Entry entry = entries.get(code);
+    if (entry == null || entry.cache == null) {
+      misses.increment();
+      return null;
+    }
+
+    entry.lastAccess = System.currentTimeMillis();
+    hits.increment();
+    return copy(entry.cache);
+  }
+
+  /**
+   * Stores {@code cache} unless a newer state, or a newer move seen on Pub/Sub, is already known for the room.
+   */
+  public void put(String code, MoveCache cache) {
+    long sequence = sequenceOf(cache);
+    MoveCache stored = copy(cache);
+    entries.compute(code, (key, current) -> current != null && current.sequence > sequence ? current : new Entry(stored, sequence));
+
+    if (entries.size() > maxSize) { trim(); }
+  }
+
+  /**
+   * Another instance committed move {@code sequence}; drops anything older and keeps the sequence as a floor.
+   */
+  public void onRemoteMove(String code, long sequence) {
+    entries.compute(code, (key, current) -> current != null && current.sequence >= sequence ? current : new Entry(null, sequence));
+  }
+
+  public void invalidate(String code) {
+    entries.remove(code);
+  }
+
+  @Scheduled(fixedDelay = 60000)
+  public void evictIdleEntries() {
+    long now = System.currentTimeMillis();
+    entries.forEach((code, entry) -> {
+      if (now - entry.lastAccess > idleMillis && entries.remove(code, entry)) { evictions.increment(); }
+    });
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  // Drops the least recently used tenth once the cache is full, so the sort runs once per many puts
+  private synchronized void trim() {
+    int excess = entries.size() - maxSize;
+    if (excess <= 0) { return; }
+
+    entries.entrySet().stream()
+        .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+        .limit(excess + maxSize / 10)
+        .forEach(e -> {
+          if (entries.remove(e.getKey(), e.getValue())) { evictions.increment(); }
+        });
+    log.debug("Near cache trimmed to {} rooms", entries.size());
+  }
+
+  private static long sequenceOf(MoveCache cache) {
+    return cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L;
+  }
+
+  private static MoveCache copy(MoveCache cache) {
+    return MoveCache.builder()
+        .fen(cache.getFen())
+        .captured(cache.getCaptured())
+        .whitePlayerId(cache.getWhitePlayerId())
+        .blackPlayerId(cache.getBlackPlayerId())
+        .gameStatus(cache.getGameStatus())
+        .lastActivity(cache.getLastActivity())
+        .moveSequence(cache.getMoveSequence())
+        .pendingPromotionSquare(cache.getPendingPromotionSquare())
+        .zobristHash(cache.getZobristHash())
+        .positionHistory(cache.getPositionHistory() != null ? cache.getPositionHistory().clone() : null)
+        .moveHistory(cache.getMoveHistory() != null ? cache.getMoveHistory().clone() : null)
+        .build();
+  }
+
+  // cache is null for a floor left by a remote move
+  private static class Entry {
+    final MoveCache cache;
+    final long sequence;
+    volatile long lastAccess = System.currentTimeMillis();
+
+    Entry(MoveCache cache, long sequence) {
+      this.cache = cache;
+      this.sequence = sequence;
+    }
+  }
+}
@@ -1,30 +1,33 @@
 package com.mychess.my_chess_backend.services.room;
 
 import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.dtos.redis.RoomStateField;
+import com.mychess.my_chess_backend.dtos.requests.room.PackedMoveDTO;
 import com.mychess.my_chess_backend.dtos.responses.auth.AuthenticatedUserDTO;
 import com.mychess.my_chess_backend.dtos.responses.room.PieceMovedResponseDTO;
 import com.mychess.my_chess_backend.dtos.responses.room.RoomDTO;
-import com.mychess.my_chess_backend.dtos.shared.Piece;
 import com.mychess.my_chess_backend.dtos.shared.Move;
-import com.mychess.my_chess_backend.dtos.shared.Position;
 import com.mychess.my_chess_backend.exceptions.room.RoomErrorMessage;
 import com.mychess.my_chess_backend.exceptions.room.MoveNotAllowed;
 import com.mychess.my_chess_backend.exceptions.room.StaleMoveException;
+import com.mychess.my_chess_backend.models.GameMove;
 import com.mychess.my_chess_backend.models.Room;
 import com.mychess.my_chess_backend.models.User;
 import com.mychess.my_chess_backend.repositories.RoomRepository;
 import com.mychess.my_chess_backend.services.events.RedisEventPublisher;
+import com.mychess.my_chess_backend.services.events.RoomBroadcaster;
 import com.mychess.my_chess_backend.services.user.UserService;
+import com.mychess.my_chess_backend.utils.BitBoard;
 import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
-import com.mychess.my_chess_backend.utils.FenUtils;
-import com.mychess.my_chess_backend.utils.MoveUtils;
+import com.mychess.my_chess_backend.utils.FenCodec;
+import com.mychess.my_chess_backend.utils.MoveGenerator;
+import com.mychess.my_chess_backend.utils.PackedMove;
 import com.mychess.my_chess_backend.utils.constants.RoomConstants;
 import com.mychess.my_chess_backend.utils.enums.EventType;
 import com.mychess.my_chess_backend.utils.enums.GameStatus;
 import com.mychess.my_chess_backend.utils.enums.RoomStatus;
 import com.mychess.my_chess_backend.exceptions.room.RoomJoinNotAllowedException;
 import com.mychess.my_chess_backend.exceptions.room.RoomNotFoundException;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
@@ -38,8 +41,11 @@ public class RoomService extends RoomServiceHelper {
     private final RoomRepository roomRepository;
     private final UserService userService;
     private final RedisGameService redisGameService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final RoomBroadcaster roomBroadcaster;
     private final RedisEventPublisher redisEventPublisher;
+    private final RoomActorRegistry roomActors;
+    private final GameMoveWriter gameMoveWriter;
+    private final RoomStateRebuilder roomStateRebuilder;
 
     private static final Random random = new Random();
 
@@ -47,14 +53,20 @@ public class RoomService extends RoomServiceHelper {
         RoomRepository roomRepository,
         UserService userService,
         RedisGameService redisGameService,
-        SimpMessagingTemplate simpMessagingTemplate,
-        RedisEventPublisher redisEventPublisher
+        RoomBroadcaster roomBroadcaster,
+        RedisEventPublisher redisEventPublisher,
+        RoomActorRegistry roomActors,
+        GameMoveWriter gameMoveWriter,
+        RoomStateRebuilder roomStateRebuilder
     ) {
         this.roomRepository = roomRepository;
         this.userService = userService;
         this.redisGameService = redisGameService;
-        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.roomBroadcaster = roomBroadcaster;
         this.redisEventPublisher = redisEventPublisher;
+        this.roomActors = roomActors;
+        this.gameMoveWriter = gameMoveWriter;
+        this.roomStateRebuilder = roomStateRebuilder;
     }
 
     public RoomDTO createRoom(User whitePlayer) {
@@ -65,7 +77,6 @@ public class RoomService extends RoomServiceHelper {
             room = Room.builder()
                 .code(generateUniqueRoomId())
                 .fen(RoomConstants.DEFAULT_CHESSBOARD_FEN)
-                .capturedPieces(RoomConstants.DEFAULT_CAPTURED_PIECES)
                 .whitePlayer(whitePlayer.getId())
                 .roomStatus(RoomStatus.AVAILABLE)
                 .gameStatus(GameStatus.WAITING)
@@ -104,8 +115,7 @@ public class RoomService extends RoomServiceHelper {
 
         RoomDTO roomDto = new RoomDTO().setCode(room.getCode());
         this.roomRepository.save(room);
-        this.broadcastRoomUpdate(code, "Opponent Joined !");
-        this.redisEventPublisher.publishMessage(code, "Opponent Joined !");
+        this.roomBroadcaster.broadcast(code, EventType.MESSAGE, "Opponent Joined !");
         return roomDto;
     }
 
@@ -113,14 +123,22 @@ public class RoomService extends RoomServiceHelper {
         Room room = this.roomRepository.findByCode(code).orElseThrow(() -> new RoomNotFoundException(code));
 
         // Check Redis cache for latest game state
-        MoveCache cache = this.redisGameService.getMoveCache(code);
-
-        if (cache != null) {
-            room.setFen(cache.getFen());
-            room.setCapturedPieces(cache.getCapturedPieces());
-            room.setMoveSequence(cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L);
+        MoveCache cache = this.redisGameService.getMoveCache(
+            code,
+            RoomStateField.FEN,
+            RoomStateField.CAPTURED,
+            RoomStateField.SEQUENCE
+        );
+
+        // Not cached: the row is only a snapshot, the moves logged since bring it up to date
+        if (cache == null) {
+            cache = this.roomStateRebuilder.rebuild(room);
         }
 
+        room.setFen(cache.getFen());
+        room.setCaptured(cache.getCaptured());
+        room.setMoveSequence(cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L);
+
         AuthenticatedUserDTO whitePlayerDTO = null, blackPlayerDTO = null;
 
         if (room.getWhitePlayer() != null) {
@@ -140,138 +158,289 @@ public class RoomService extends RoomServiceHelper {
         return this.getRoomDto(room, whitePlayerDTO, blackPlayerDTO);
     }
 
-    @Retryable(
-        retryFor = {ObjectOptimisticLockingFailureException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 100, multiplier = 2)
-    )
+    /**
+     * Runs on the room's actor, so moves for one room are validated and applied strictly one after another.
+     * A move refused as stale is retried once on freshly loaded state, since the actor's copy may be the stale one.
+     */
     public void processPlayerMove(
         Move move,
         String roomId,
         User player
     ) {
-        MoveCache cache = this.redisGameService.getMoveCache(roomId);
+        this.roomActors.call(roomId, actor -> {
+            Move attempt = copyOf(move);
+            try {
+                this.applyPlayerMove(move, roomId, player, this.loadMoveCache(roomId, actor));
+            } catch (StaleMoveException e) {
+                actor.setState(null);
+                this.applyPlayerMove(attempt, roomId, player, this.loadMoveCache(roomId, actor));
+            }
+            return null;
+        });
+    }
 
-        if (cache == null) {
-            Room room = this.roomRepository.findByCode(roomId).orElseThrow(() -> new RoomNotFoundException(roomId));
-            cache = MoveCache.builder()
-                .fen(room.getFen())
-                .capturedPieces(room.getCapturedPieces())
-                .whitePlayerId(room.getWhitePlayer())
-                .blackPlayerId(room.getBlackPlayer())
-                .gameStatus(room.getGameStatus())
-                .lastActivity(room.getLastActivity())
-                .moveSequence(room.getMoveSequence() != null ? room.getMoveSequence() : 0L)
-                .build();
-            redisGameService.saveMoveCache(roomId, cache);
-        }
+    private void applyPlayerMove(Move move, String roomId, User player, MoveCache cache) {
+        this.checkMoveAllowed(cache, move.getExpectedMoveSequence(), player);
 
-        // Idempotency check: Ensure move sequence is valid
-        if (move.getExpectedMoveSequence() != null) {
-            Long currentSequence = cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L;
+        boolean isWhiteTurn = FenCodec.sideToMove(cache.getFen()) == BitBoard.WHITE;
+        boolean isPlayerWhite = Objects.equals(cache.getWhitePlayerId(), player.getId());
 
-            if (!move.getExpectedMoveSequence().equals(currentSequence)) {
-                throw new StaleMoveException(move.getExpectedMoveSequence(), currentSequence);
-            }
+        if (isWhiteTurn == isPlayerWhite) {
+            // A pending promotion choice lapses once the opponent is on the move
+            cache.setPendingPromotionSquare(null);
         }
 
-        if (
-            !Objects.equals(cache.getWhitePlayerId(), player.getId()) &&
-            !Objects.equals(cache.getBlackPlayerId(), player.getId())
-        ) {
-            throw new RoomJoinNotAllowedException(RoomErrorMessage.UNAUTHORIZED_MOVE.getValue());
+        // The promoting player has already passed the turn and is only picking the piece
+        if (!isPromotionChoice(move, cache)) {
+            this.checkTurn(isWhiteTurn, isPlayerWhite);
         }
 
-        if (cache.getGameStatus() != GameStatus.IN_PROGRESS) {
-            throw new RoomJoinNotAllowedException(RoomErrorMessage.GAME_INACTIVE.getValue());
-        }
+        this.handleMove(move, roomId, cache);
+    }
+
+    /**
+     * Same as {@link #processPlayerMove(Move, String, User)} for the compact payload.
+     * Packed moves always carry their promotion piece, so there is no two-step promotion here.
+     */
+    public void processPlayerMove(
+        PackedMoveDTO packedMove,
+        String roomId,
+        User player
+    ) {
+        this.roomActors.call(roomId, actor -> {
+            try {
+                this.applyPlayerMove(packedMove, roomId, player, this.loadMoveCache(roomId, actor));
+            } catch (StaleMoveException e) {
+                actor.setState(null);
+                this.applyPlayerMove(packedMove, roomId, player, this.loadMoveCache(roomId, actor));
+            }
+            return null;
+        });
+    }
+
+    private void applyPlayerMove(PackedMoveDTO packedMove, String roomId, User player, MoveCache cache) {
+        this.checkMoveAllowed(cache, packedMove.getExpectedMoveSequence(), player);
 
-        boolean isWhiteTurn = FenUtils.getTurn(cache.getFen()).equals("w");
+        boolean isWhiteTurn = FenCodec.sideToMove(cache.getFen()) == BitBoard.WHITE;
         boolean isPlayerWhite = Objects.equals(cache.getWhitePlayerId(), player.getId());
+        this.checkTurn(isWhiteTurn, isPlayerWhite);
+        cache.setPendingPromotionSquare(null);
 
-        if (isWhiteTurn && !isPlayerWhite && move.getMoveDetails().getPromotion() != Boolean.TRUE) {
-            throw new MoveNotAllowed(RoomErrorMessage.WHITES_TURN.getValue());
+        this.handleMove(packedMove.getMove(), roomId, cache);
+    }
+
+    public void handleMove(Move move, String roomId, MoveCache cache) {
+        BitBoard board = BitBoard.fromFen(cache.getFen());
+
+        if (isPromotionChoice(move, cache)) {
+            choosePromotedPiece(board, move, cache.getPendingPromotionSquare());
+            cache.setPendingPromotionSquare(null);
+            cache.setMoveHistory(withChosenPromotion(cache.getMoveHistory(), getPromotionType(move.getMoveDetails())));
+            this.commitMove(board, move, roomId, cache, BitBoard.NO_PIECE, true);
+            return;
         }
 
-        if (!isWhiteTurn && isPlayerWhite && move.getMoveDetails().getPromotion() != Boolean.TRUE) {
-            throw new MoveNotAllowed(RoomErrorMessage.BLACKS_TURN.getValue());
+        int legalMove = resolveLegalMove(board, move);
+        boolean promotionChosen = getPromotionType(move.getMoveDetails()) != BitBoard.NO_PIECE;
+        describeMove(board, legalMove, move.getMoveDetails());
+        this.applyMove(board, legalMove, move, roomId, cache, promotionChosen);
+    }
+
+    public void handleMove(short packedMove, String roomId, MoveCache cache) {
+        BitBoard board = BitBoard.fromFen(cache.getFen());
+        int legalMove = MoveGenerator.findLegalMove(
+            board,
+            PackedMove.from(packedMove),
+            PackedMove.to(packedMove),
+            PackedMove.promotionType(packedMove)
+        );
+
+        if (legalMove == MoveGenerator.NO_MOVE) {
+            throw new MoveNotAllowed(RoomErrorMessage.ILLEGAL_MOVE.getValue());
         }
 
-        this.handleMove(move, roomId, cache);
+        // Subscribers on the rich payload still get the full move echoed
+        this.applyMove(board, legalMove, toMove(board, legalMove), roomId, cache, true);
     }
 
-    public void handleMove(Move move, String roomId, MoveCache cache) {
-        Piece targetPiece = move.getMoveDetails().getTargetPiece();
-        Position targetPosition = move.getTo();
-        Piece movedPiece = move.getPiece();
-        String fen = cache.getFen();
+    private void applyMove(
+        BitBoard board,
+        int legalMove,
+        Move move,
+        String roomId,
+        MoveCache cache,
+        boolean promotionChosen
+    ) {
+        int to = PackedMove.to(legalMove);
+        int promotionType = PackedMove.promotionType(legalMove);
+        int capturedPiece = board.makeMove(PackedMove.from(legalMove), to, promotionType);
 
-        List<Piece> pieces = MoveUtils.handleMove(FenUtils.parseFenToPieces(fen), move);
-        pieces = updateMovedPieceInList(pieces, movedPiece, targetPosition);
+        cache.setPendingPromotionSquare(promotionType != BitBoard.NO_PIECE && !promotionChosen ? to : null);
+        cache.setMoveHistory(PackedMove.append(cache.getMoveHistory(), legalMove));
+        this.commitMove(board, move, roomId, cache, capturedPiece, false);
+    }
 
-        String nextTurn = getNextTurn(fen, move);
-        String newFen = FenUtils.piecesToFen(pieces, nextTurn);
+    private void commitMove(
+        BitBoard board,
+        Move move,
+        String roomId,
+        MoveCache cache,
+        int capturedPiece,
+        boolean promotionChoice
+    ) {
+        String newFen = board.toFen();
 
-        boolean checkMate = isCheckMate(move);
+        GameStatus outcome = recordOutcome(cache, board);
 
-        if (targetPiece != null) {
-            String capturedPieces = CapturedPieceUtil.recordCapture(cache.getCapturedPieces(), targetPiece);
-            cache.setCapturedPieces(capturedPieces);
+        if (capturedPiece != BitBoard.NO_PIECE) {
+            cache.setCaptured(CapturedPieceUtil.recordCapture(cache.getCaptured(), capturedPiece));
         }
         cache.setFen(newFen);
         cache.setLastActivity(LocalDateTime.now());
 
-        long currentSequence = cache.getMoveSequence() != null ? cache.getMoveSequence() : 0;
-        cache.setMoveSequence(currentSequence + 1);
+        long previousSequence = cache.getMoveSequence() != null ? cache.getMoveSequence() : 0;
+        cache.setMoveSequence(previousSequence + 1);
 
+        short[] moveHistory = cache.getMoveHistory();
         PieceMovedResponseDTO responseDTO = new PieceMovedResponseDTO()
             .setMove(move)
+            .setPackedMove(moveHistory != null && moveHistory.length > 0 ? moveHistory[moveHistory.length - 1] : null)
             .setFen(newFen)
             .setMoveSequence(cache.getMoveSequence());
 
-        // Broadcast to local WebSocket subscribers
-        this.broadcastRoomUpdate(roomId, responseDTO);
+        // Only these fields are rewritten when room state is stored as a Redis hash
+        EnumSet<RoomStateField> changed = EnumSet.of(
+            RoomStateField.FEN,
+            RoomStateField.SEQUENCE,
+            RoomStateField.LAST_ACTIVITY,
+            RoomStateField.PENDING_PROMOTION,
+            RoomStateField.ZOBRIST_HASH,
+            RoomStateField.POSITION_HISTORY,
+            RoomStateField.MOVE_HISTORY
+        );
+        if (capturedPiece != BitBoard.NO_PIECE) {
+            changed.add(RoomStateField.CAPTURED);
+        }
 
-        // Publish to Redis Pub/Sub for other server instances
-        redisEventPublisher.publishRoomEvent(roomId, EventType.MOVE, responseDTO);
+        UUID whitePlayerId = cache.getWhitePlayerId();
+        UUID blackPlayerId = cache.getBlackPlayerId();
+        if (outcome != GameStatus.IN_PROGRESS) {
+            // Finished games are cached too, so the sync worker and late moves see the final status
+            cache.setGameStatus(outcome).setWhitePlayerId(null).setBlackPlayerId(null);
+            changed.addAll(EnumSet.of(RoomStateField.STATUS, RoomStateField.WHITE_PLAYER, RoomStateField.BLACK_PLAYER));
+        }
 
-        if (checkMate) {
+        // Serialized once: the same body goes to local subscribers and, framed, to the other instances
+        RoomBroadcaster.EncodedEvent event = this.roomBroadcaster.encode(roomId, EventType.MOVE, responseDTO);
+
+        // State, sync mark and the Pub/Sub event for other server instances in one atomic step,
+        // refused if another move was committed since this one was validated
+        MoveCache current = this.redisGameService.commitMove(
+            roomId,
+            cache,
+            previousSequence,
+            changed,
+            this.redisEventPublisher.channel(roomId),
+            event.frame()
+        );
+        if (current != null) {
+            throw new StaleMoveException(previousSequence, current.getMoveSequence() != null ? current.getMoveSequence() : 0L);
+        }
+
+        // Broadcast to local WebSocket subscribers
+        this.roomBroadcaster.sendLocal(event);
+
+        if (responseDTO.getPackedMove() != null) {
+            this.gameMoveWriter.record(new GameMove(
+                roomId,
+                cache.getMoveSequence(),
+                responseDTO.getPackedMove(),
+                promotionChoice,
+                cache.getLastActivity()
+            ));
+        }
+
+        if (outcome != GameStatus.IN_PROGRESS) {
             Room room = this.roomRepository.findByCode(roomId).orElseThrow(() -> new RoomNotFoundException(roomId));
             room.setFen(cache.getFen());
+            room.setCaptured(cache.getCaptured());
             room.setMoveSequence(cache.getMoveSequence());
-
-            GameStatus whoWon = Objects.equals(move.getMoveDetails().getTargetPiece().getColor(), "w") ?
-                GameStatus.BLACK_WON :
-                GameStatus.WHITE_WON;
-            room.setGameStatus(whoWon);
+            room.setZobristHash(cache.getZobristHash());
+            room.setPositionHistory(cache.getPositionHistory());
+            room.setMoveHistory(cache.getMoveHistory());
+            room.setGameStatus(outcome);
             room.setRoomStatus(RoomStatus.OCCUPIED);
 
             AuthenticatedUserDTO whitePlayerDTO = null, blackPlayerDTO = null;
 
             User whitePlayer = this.userService.getUserById(room.getWhitePlayer());
             User blackPlayer = this.userService.getUserById(room.getBlackPlayer());
-            if (cache.getWhitePlayerId() != null) {
+            if (whitePlayerId != null) {
                 whitePlayerDTO = this.getAuthenticatedUserDto(whitePlayer);
             }
-            if (cache.getBlackPlayerId() != null) {
+            if (blackPlayerId != null) {
                 blackPlayerDTO = this.getAuthenticatedUserDto(blackPlayer);
             }
             RoomDTO roomDTO = this.getRoomDto(room, whitePlayerDTO, blackPlayerDTO);
 
-            cache.setBlackPlayerId(null).setWhitePlayerId(null);
             whitePlayer.setInGame(false);
             blackPlayer.setInGame(false);
 
             this.userService.updateUser(whitePlayer);
             this.userService.updateUser(blackPlayer);
-            this.broadcastRoomUpdate(roomId, roomDTO);
-            this.redisEventPublisher.publishRoomUpdate(roomId, roomDTO);
+            this.roomBroadcaster.broadcast(roomId, EventType.ROOM_UPDATE, roomDTO);
 
-            this.broadcastRoomUpdate(roomId, "Game has ended.");
-            this.redisEventPublisher.publishMessage(roomId, "Game has ended.");
+            this.roomBroadcaster.broadcast(roomId, EventType.MESSAGE, "Game has ended.");
             this.roomRepository.save(room);
-        } else {
-            this.redisGameService.saveMoveCache(roomId, cache);
+        }
+    }
+
+    // The actor's in-memory state first, then Redis, then the database snapshot plus the move log
+    private MoveCache loadMoveCache(String roomId, RoomActorRegistry.RoomActor actor) {
+        if (actor.getState() != null) {
+            return actor.getState();
+        }
+
+        MoveCache cache = this.redisGameService.getMoveCache(roomId);
+
+        // Not written back: the next commit recreates the key once it has checked the sequence against this state
+        if (cache == null) {
+            Room room = this.roomRepository.findByCode(roomId).orElseThrow(() -> new RoomNotFoundException(roomId));
+            cache = this.roomStateRebuilder.rebuild(room);
+        }
+        actor.setState(cache);
+        return cache;
+    }
+
+    private void checkMoveAllowed(MoveCache cache, Long expectedMoveSequence, User player) {
+        // Idempotency check: Ensure move sequence is valid
+        if (expectedMoveSequence != null) {
+            Long currentSequence = cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L;
+
+            if (!expectedMoveSequence.equals(currentSequence)) {
+                throw new StaleMoveException(expectedMoveSequence, currentSequence);
+            }
+        }
+
+        if (
+            !Objects.equals(cache.getWhitePlayerId(), player.getId()) &&
+            !Objects.equals(cache.getBlackPlayerId(), player.getId())
+        ) {
+            throw new RoomJoinNotAllowedException(RoomErrorMessage.UNAUTHORIZED_MOVE.getValue());
+        }
+
+        if (cache.getGameStatus() != GameStatus.IN_PROGRESS) {
+            throw new RoomJoinNotAllowedException(RoomErrorMessage.GAME_INACTIVE.getValue());
+        }
+    }
+
+    private void checkTurn(boolean isWhiteTurn, boolean isPlayerWhite) {
+        if (isWhiteTurn && !isPlayerWhite) {
+            throw new MoveNotAllowed(RoomErrorMessage.WHITES_TURN.getValue());
+        }
+
+        if (!isWhiteTurn && isPlayerWhite) {
+            throw new MoveNotAllowed(RoomErrorMessage.BLACKS_TURN.getValue());
         }
     }
 
@@ -292,8 +461,7 @@ public class RoomService extends RoomServiceHelper {
         Room room = this.roomRepository.findByCode(code).orElseThrow(() -> new RoomNotFoundException(code));
 
         String message = "Player " + user.getUsername() + " joined the room.";
-        this.broadcastRoomUpdate(code, message);
-        this.redisEventPublisher.publishMessage(code, message);
+        this.roomBroadcaster.broadcast(code, EventType.MESSAGE, message);
 
         user.setInGame(true);
         this.userService.updateUser(user);
@@ -305,8 +473,7 @@ public class RoomService extends RoomServiceHelper {
         ) {
             room.setGameStatus(GameStatus.IN_PROGRESS);
             this.roomRepository.save(room);
-            this.broadcastRoomUpdate(room.getCode(), "Game resumed.");
-            this.redisEventPublisher.publishMessage(room.getCode(), "Game resumed.");
+            this.roomBroadcaster.broadcast(room.getCode(), EventType.MESSAGE, "Game resumed.");
         }
 
         AuthenticatedUserDTO whitePlayerDTO = null, blackPlayerDTO = null;
@@ -320,8 +487,7 @@ public class RoomService extends RoomServiceHelper {
         }
 
         RoomDTO roomDTO = this.getRoomDto(room, whitePlayerDTO, blackPlayerDTO);
-        this.broadcastRoomUpdate(code, roomDTO);
-        this.redisEventPublisher.publishRoomUpdate(code, roomDTO);
+        this.roomBroadcaster.broadcast(code, EventType.ROOM_UPDATE, roomDTO);
     }
 
     @Retryable(
@@ -333,8 +499,7 @@ public class RoomService extends RoomServiceHelper {
         Room room = this.roomRepository.findByCode(code).orElseThrow(() -> new RoomNotFoundException(code));
 
         String message = "Player " + user.getUsername() + " left the room.";
-        this.broadcastRoomUpdate(code, message);
-        this.redisEventPublisher.publishMessage(code, message);
+        this.roomBroadcaster.broadcast(code, EventType.MESSAGE, message);
 
         user.setInGame(false);
         this.userService.updateUser(user);
@@ -342,8 +507,7 @@ public class RoomService extends RoomServiceHelper {
         if (room.getGameStatus() == GameStatus.IN_PROGRESS) {
             room.setGameStatus(GameStatus.PAUSED);
             this.roomRepository.save(room);
-            this.broadcastRoomUpdate(room.getCode(), "Game paused.");
-            this.redisEventPublisher.publishMessage(room.getCode(), "Game paused.");
+            this.roomBroadcaster.broadcast(room.getCode(), EventType.MESSAGE, "Game paused.");
         }
 
         AuthenticatedUserDTO whitePlayerDTO = null, blackPlayerDTO = null;
@@ -357,15 +521,10 @@ public class RoomService extends RoomServiceHelper {
         }
 
         RoomDTO roomDTO = this.getRoomDto(room, whitePlayerDTO, blackPlayerDTO);
-        this.broadcastRoomUpdate(code, roomDTO);
-        this.redisEventPublisher.publishRoomUpdate(code, roomDTO);
+        this.roomBroadcaster.broadcast(code, EventType.ROOM_UPDATE, roomDTO);
         return roomDTO;
     }
 
-    private void broadcastRoomUpdate(String roomCode, Object data) {
-        this.simpMessagingTemplate.convertAndSend("/topic/room." + roomCode, data);
-    }
-
     private AuthenticatedUserDTO getAuthenticatedUserDto(UUID id) {
         User user = this.userService.getUserById(id);
         return this.getAuthenticatedUserDto(user);
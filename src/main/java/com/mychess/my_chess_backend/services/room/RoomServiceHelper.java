@@ -1,56 +1,221 @@
 package com.mychess.my_chess_backend.services.room;
 
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
 import com.mychess.my_chess_backend.dtos.responses.auth.AuthenticatedUserDTO;
 import com.mychess.my_chess_backend.dtos.responses.room.RoomDTO;
 import com.mychess.my_chess_backend.dtos.shared.Move;
+import com.mychess.my_chess_backend.dtos.shared.MoveDetails;
 import com.mychess.my_chess_backend.dtos.shared.Piece;
 import com.mychess.my_chess_backend.dtos.shared.Position;
+import com.mychess.my_chess_backend.exceptions.room.MoveNotAllowed;
+import com.mychess.my_chess_backend.exceptions.room.RoomErrorMessage;
 import com.mychess.my_chess_backend.models.Room;
-import com.mychess.my_chess_backend.utils.FenUtils;
+import com.mychess.my_chess_backend.utils.BitBoard;
+import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
+import com.mychess.my_chess_backend.utils.GameOutcomeUtils;
+import com.mychess.my_chess_backend.utils.MoveGenerator;
+import com.mychess.my_chess_backend.utils.PackedMove;
+import com.mychess.my_chess_backend.utils.enums.ChessPiece;
+import com.mychess.my_chess_backend.utils.enums.ChessPieceColor;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.regex.Pattern;
 
 public class RoomServiceHelper {
-    protected static boolean isCheckMate(Move move) {
-        Piece targetPiece = move.getMoveDetails().getTargetPiece();
-        return targetPiece != null && targetPiece.getType().equals("king");
-    }
-
-    protected static List<Piece> updateMovedPieceInList(List<Piece> pieces, Piece movedPiece, Position targetPosition) {
-        List<Piece> updatedPieces = new ArrayList<>(pieces);
-        for (Piece piece : updatedPieces) {
-            if (piece.getId().equals(movedPiece.getId())) {
-                byte finalTargetRow = targetPosition.getRow();
-                if (piece.getColor().equals("w")) {
-                    finalTargetRow = (byte) (7 - targetPosition.getRow());
-                }
-                piece.setRow(finalTargetRow);
-                piece.setCol(targetPosition.getCol());
-                piece.setHasMoved(true);
-                piece.setEnPassantAvailable(movedPiece.getEnPassantAvailable());
-                break;
-            }
-        }
-        return updatedPieces;
-    }
-
-    protected static String getNextTurn(String fen, Move move) {
-        String nextTurn = FenUtils.getNextTurn(fen);
-        if (
+    private static final Pattern PIECE_ID = Pattern.compile(".*-[0-7]-[0-7]");
+
+    /**
+     * Appends the position to the repetition history, which restarts after every capture or pawn move,
+     * and returns how many times the position has now occurred.
+     */
+    protected static int recordPosition(MoveCache cache, BitBoard board) {
+        long hash = board.getHash();
+        long[] history = cache.getPositionHistory();
+
+        if (history == null || board.getHalfmoveClock() == 0) {
+            history = new long[] { hash };
+        } else {
+            history = Arrays.copyOf(history, history.length + 1);
+            history[history.length - 1] = hash;
+        }
+
+        cache.setZobristHash(hash).setPositionHistory(history);
+        return GameOutcomeUtils.countRepetitions(history);
+    }
+
+    /**
+     * Records the position and decides whether it ends the game. While a legacy two-step promotion is pending the
+     * auto-queen may still be swapped, so the game stays in progress until the choice arrives and is evaluated.
+     */
+    protected static GameStatus recordOutcome(MoveCache cache, BitBoard board) {
+        int repetitions = recordPosition(cache, board);
+        if (cache.getPendingPromotionSquare() != null) {
+            return GameStatus.IN_PROGRESS;
+        }
+        return GameOutcomeUtils.evaluate(board, repetitions);
+    }
+
+    /**
+     * Matches the client's move against the legal moves of the position and returns it encoded.
+     * Capture, castling, en passant and promotion are decided here rather than taken from the payload.
+     */
+    protected static int resolveLegalMove(BitBoard board, Move move) {
+        int from = getFromSquare(move.getPiece());
+        int to = getTargetSquare(move.getTo(), board.getSideToMove());
+        int legalMove = MoveGenerator.findLegalMove(board, from, to, getPromotionType(move.getMoveDetails()));
+
+        if (legalMove == MoveGenerator.NO_MOVE) {
+            throw new MoveNotAllowed(RoomErrorMessage.ILLEGAL_MOVE.getValue());
+        }
+        return legalMove;
+    }
+
+    /**
+     * Overwrites the client's move details with what the server worked out, so the broadcast echo is authoritative.
+     * Must be called before the move is made on the board.
+     */
+    protected static void describeMove(BitBoard board, int legalMove, MoveDetails moveDetails) {
+        int from = PackedMove.from(legalMove);
+        int to = PackedMove.to(legalMove);
+        int type = BitBoard.typeOf(board.pieceAt(from));
+        int promotionType = PackedMove.promotionType(legalMove);
+
+        String castling = null;
+        if (type == BitBoard.KING && Math.abs(to - from) == 2) {
+            castling = to > from ? "kingside" : "queenside";
+        }
+
+        moveDetails.setValid(true)
+            .setCastling(castling)
+            .setEnPassant(type == BitBoard.PAWN && to == board.getEnPassantSquare())
+            .setPromotion(promotionType != BitBoard.NO_PIECE)
+            .setPromotionType(promotionType != BitBoard.NO_PIECE ? toChessPiece(promotionType) : null);
+    }
+
+    /**
+     * Legacy clients promote in two messages: the pawn move, then the chosen piece once the turn has passed.
+     * The pawn move promotes to a queen and leaves the square pending; this second message swaps the piece.
+     */
+    protected static boolean isPromotionChoice(Move move, MoveCache cache) {
+        return cache.getPendingPromotionSquare() != null &&
             move.getMoveDetails().getPromotion() == Boolean.TRUE &&
-            move.getMoveDetails().getPromotedPiece() != null
+            move.getMoveDetails().getPromotedPiece() != null;
+    }
+
+    protected static void choosePromotedPiece(BitBoard board, Move move, int square) {
+        int queen = board.pieceAt(square);
+        int promotionType = getPromotionType(move.getMoveDetails());
+        if (
+            queen == BitBoard.NO_PIECE ||
+            BitBoard.typeOf(queen) != BitBoard.QUEEN ||
+            promotionType < BitBoard.KNIGHT ||
+            promotionType > BitBoard.QUEEN
         ) {
-            nextTurn = FenUtils.getTurn(fen);
+            throw new MoveNotAllowed(RoomErrorMessage.NO_PENDING_PROMOTION.getValue());
         }
 
-        return nextTurn;
+        board.removePiece(queen, square);
+        board.putPiece(BitBoard.piece(BitBoard.colorOf(queen), promotionType), square);
+    }
+
+    // Rewrites the auto-promoted queen of the last recorded move to the piece the player picked
+    protected static short[] withChosenPromotion(short[] moveHistory, int promotionType) {
+        if (moveHistory == null || moveHistory.length == 0) return moveHistory;
+
+        short[] updated = moveHistory.clone();
+        updated[updated.length - 1] = (short) PackedMove.withPromotion(updated[updated.length - 1], promotionType);
+        return updated;
+    }
+
+    /**
+     * Builds the rich move payload for a packed move, for clients that only understand that format.
+     * Must be called before the move is made on the board.
+     */
+    protected static Move toMove(BitBoard board, int legalMove) {
+        int from = PackedMove.from(legalMove);
+        int to = PackedMove.to(legalMove);
+        int piece = board.pieceAt(from);
+        int color = BitBoard.colorOf(piece);
+        String colorValue = color == BitBoard.WHITE ? ChessPieceColor.WHITE.getValue() : ChessPieceColor.BLACK.getValue();
+        String type = toChessPiece(BitBoard.typeOf(piece)).getValue();
+        int fenRow = 7 - BitBoard.rowOf(from);
+
+        Piece movedPiece = new Piece()
+            .setId(colorValue + '-' + type + '-' + fenRow + '-' + BitBoard.colOf(from))
+            .setCol((byte) BitBoard.colOf(from))
+            .setRow((byte) BitBoard.rowOf(from))
+            .setColor(colorValue)
+            .setType(type);
+        int targetRow = color == BitBoard.WHITE ? 7 - BitBoard.rowOf(to) : BitBoard.rowOf(to);
+        MoveDetails moveDetails = new MoveDetails();
+        describeMove(board, legalMove, moveDetails);
+
+        return new Move()
+            .setPiece(movedPiece)
+            .setTo(new Position((byte) targetRow, (byte) BitBoard.colOf(to)))
+            .setMoveDetails(moveDetails);
+    }
+
+    // handleMove rewrites the move details, so a retried move starts from what the client sent
+    protected static Move copyOf(Move move) {
+        MoveDetails details = move.getMoveDetails();
+        return new Move()
+            .setPiece(move.getPiece())
+            .setTo(move.getTo())
+            .setExpectedMoveSequence(move.getExpectedMoveSequence())
+            .setMoveDetails(details == null ? null : new MoveDetails(
+                details.isValid(),
+                details.getTargetPiece(),
+                details.getPromotedPiece(),
+                details.getPromotion(),
+                details.getPromotionType(),
+                details.getCastling(),
+                details.getSituation(),
+                details.getEnPassant()
+            ));
+    }
+
+    protected static int getPromotionType(MoveDetails moveDetails) {
+        if (moveDetails.getPromotionType() != null) {
+            return BitBoard.typeFromName(moveDetails.getPromotionType().getValue());
+        }
+        if (moveDetails.getPromotedPiece() != null) {
+            return BitBoard.typeFromName(moveDetails.getPromotedPiece().getType());
+        }
+        return BitBoard.NO_PIECE;
+    }
+
+    // Piece ids are "<color>-<type>-<fenRow>-<col>" as generated from the FEN the piece was read from
+    protected static int getFromSquare(Piece piece) {
+        String id = piece != null ? piece.getId() : null;
+        if (id == null || !PIECE_ID.matcher(id).matches()) {
+            throw new MoveNotAllowed(RoomErrorMessage.ILLEGAL_MOVE.getValue());
+        }
+
+        int fenRow = id.charAt(id.length() - 3) - '0';
+        int col = id.charAt(id.length() - 1) - '0';
+        return BitBoard.square(7 - fenRow, col);
+    }
+
+    // Clients send the target row as seen from their own side of the board
+    protected static int getTargetSquare(Position to, int color) {
+        if (to == null) {
+            throw new MoveNotAllowed(RoomErrorMessage.ILLEGAL_MOVE.getValue());
+        }
+        int row = color == BitBoard.WHITE ? 7 - to.getRow() : to.getRow();
+        return BitBoard.square(row, to.getCol());
+    }
+
+    private static ChessPiece toChessPiece(int type) {
+        return ChessPiece.fromFenChar(Character.toLowerCase(BitBoard.fenChar(type)));
     }
 
     protected RoomDTO getRoomDto(Room room, AuthenticatedUserDTO whitePlayerDTO, AuthenticatedUserDTO blackPlayerDTO) {
         return new RoomDTO()
             .setCode(room.getCode())
-            .setCapturedPieces(room.getCapturedPieces())
+            .setCapturedPieces(CapturedPieceUtil.toCapturedString(room.getCaptured()))
+            .setMaterialBalance(CapturedPieceUtil.materialBalance(room.getCaptured()))
             .setFen(room.getFen())
             .setBlackPlayer(blackPlayerDTO)
             .setWhitePlayer(whitePlayerDTO)
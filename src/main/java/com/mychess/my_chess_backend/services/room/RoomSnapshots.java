@@ -0,0 +1,75 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mychess.my_chess_backend.dtos.responses.room.RoomDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A room's current {@link RoomDTO} encoded once as a STOMP body, shared by every session that gets a snapshot in
+ * place of the events it missed. Any event for the room drops the cached body, so a snapshot is never older than
+ * the events already sent for the room.
+ */
+@Component
+public class RoomSnapshots {
+  private static final long MAX_AGE_MILLIS = 60_000;
+
+  // body is null while the first caller builds it
+  private record Snapshot(byte[] body, long createdAt) {}
+
+  // Lazy: RoomService broadcasts through RoomBroadcaster, which depends on this
+  private final ObjectProvider<RoomService> roomService;
+  private final ObjectMapper objectMapper;
+  private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+  public RoomSnapshots(ObjectProvider<RoomService> roomService, ObjectMapper objectMapper) {
+    this.roomService = roomService;
+    this.objectMapper = objectMapper;
+  }
+
+  public void onEvent(String code) {
+    snapshots.remove(code);
+  }
+
+  /**
+   * The cached body, or null if it would have to be built. Never blocks.
+   */
+  public byte[] cached(String code) {
+    Snapshot cached = snapshots.get(code);
+    return cached != null ? cached.body() : null;
+  }
+
+  /**
+   * The cached body, built from the room's current state if there is none. May read Redis and the database.
+   */
+  public byte[] current(String code) {
+    Snapshot building = new Snapshot(null, System.currentTimeMillis());
+    Snapshot cached = snapshots.putIfAbsent(code, building);
+    if (cached != null && cached.body() != null) { return cached.body(); }
+
+    byte[] body;
+    try {
+      body = objectMapper.writeValueAsBytes(roomService.getObject().getRoom(code));
+    } catch (JsonProcessingException e) {
+      snapshots.remove(code, building);
+      throw new IllegalStateException("Could not serialize snapshot of room " + code, e);
+    } catch (RuntimeException e) {
+      snapshots.remove(code, building);
+      throw e;
+    }
+    // Only kept if no event arrived while it was being built
+    snapshots.replace(code, building, new Snapshot(body, building.createdAt()));
+    return body;
+  }
+
+  @Scheduled(fixedDelay = 60000)
+  public void evictOldSnapshots() {
+    long cutoff = System.currentTimeMillis() - MAX_AGE_MILLIS;
+    snapshots.values().removeIf(snapshot -> snapshot.createdAt() < cutoff);
+  }
+}
@@ -0,0 +1,91 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.dtos.redis.RoomStateField;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Converts single {@link MoveCache} fields to and from Redis hash values.
+ * Scalars are stored as text so they stay readable in redis-cli; the histories as packed big-endian arrays.
+ */
+final class RoomStateHashCodec {
+  private RoomStateHashCodec() {}
+
+  /**
+   * Returns the stored form of {@code field}, or null when the field is unset and should be removed.
+   */
+  static byte[] encode(RoomStateField field, MoveCache cache) {
+    return switch (field) {
+      case FEN -> text(cache.getFen());
+      case CAPTURED -> text(Long.toString(cache.getCaptured()));
+      case SEQUENCE -> text(cache.getMoveSequence());
+      case STATUS -> cache.getGameStatus() != null ? text(cache.getGameStatus().name()) : null;
+      case WHITE_PLAYER -> text(cache.getWhitePlayerId());
+      case BLACK_PLAYER -> text(cache.getBlackPlayerId());
+      case LAST_ACTIVITY -> text(cache.getLastActivity());
+      case PENDING_PROMOTION -> text(cache.getPendingPromotionSquare());
+      case ZOBRIST_HASH -> text(cache.getZobristHash());
+      case POSITION_HISTORY -> encodeLongs(cache.getPositionHistory());
+      case MOVE_HISTORY -> encodeShorts(cache.getMoveHistory());
+    };
+  }
+
+  static void decode(RoomStateField field, byte[] value, MoveCache cache) {
+    if (value == null) { return; }
+
+    switch (field) {
+      case FEN -> cache.setFen(text(value));
+      case CAPTURED -> cache.setCaptured(Long.parseLong(text(value)));
+      case SEQUENCE -> cache.setMoveSequence(Long.parseLong(text(value)));
+      case STATUS -> cache.setGameStatus(GameStatus.valueOf(text(value)));
+      case WHITE_PLAYER -> cache.setWhitePlayerId(UUID.fromString(text(value)));
+      case BLACK_PLAYER -> cache.setBlackPlayerId(UUID.fromString(text(value)));
+      case LAST_ACTIVITY -> cache.setLastActivity(LocalDateTime.parse(text(value)));
+      case PENDING_PROMOTION -> cache.setPendingPromotionSquare(Integer.parseInt(text(value)));
+      case ZOBRIST_HASH -> cache.setZobristHash(Long.parseLong(text(value)));
+      case POSITION_HISTORY -> cache.setPositionHistory(decodeLongs(value));
+      case MOVE_HISTORY -> cache.setMoveHistory(decodeShorts(value));
+    }
+  }
+
+  private static byte[] text(Object value) {
+    return value != null ? value.toString().getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  private static String text(byte[] value) {
+    return new String(value, StandardCharsets.UTF_8);
+  }
+
+  private static byte[] encodeLongs(long[] values) {
+    if (values == null) { return null; }
+
+    ByteBuffer buffer = ByteBuffer.allocate(values.length * Long.BYTES);
+    buffer.asLongBuffer().put(values);
+    return buffer.array();
+  }
+
+  private static long[] decodeLongs(byte[] value) {
+    long[] values = new long[value.length / Long.BYTES];
+    ByteBuffer.wrap(value).asLongBuffer().get(values);
+    return values;
+  }
+
+  private static byte[] encodeShorts(short[] values) {
+    if (values == null) { return null; }
+
+    ByteBuffer buffer = ByteBuffer.allocate(values.length * Short.BYTES);
+    buffer.asShortBuffer().put(values);
+    return buffer.array();
+  }
+
+  private static short[] decodeShorts(byte[] value) {
+    short[] values = new short[value.length / Short.BYTES];
+    ByteBuffer.wrap(value).asShortBuffer().get(values);
+    return values;
+  }
+}
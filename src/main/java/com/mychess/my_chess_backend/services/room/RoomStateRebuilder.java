@@ -0,0 +1,94 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.models.GameMove;
+import com.mychess.my_chess_backend.models.Room;
+import com.mychess.my_chess_backend.repositories.GameMoveRepository;
+import com.mychess.my_chess_backend.utils.BitBoard;
+import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
+import com.mychess.my_chess_backend.utils.GameOutcomeUtils;
+import com.mychess.my_chess_backend.utils.PackedMove;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Rebuilds a room's state from its last snapshot, the {@link Room} row, and the {@code game_moves} logged after it.
+ * The sync worker only snapshots every few moves and at game end, so the row alone is usually behind.
+ */
+@Service
+public class RoomStateRebuilder {
+  private final GameMoveRepository gameMoveRepository;
+
+  public RoomStateRebuilder(GameMoveRepository gameMoveRepository) {
+    this.gameMoveRepository = gameMoveRepository;
+  }
+
+  public MoveCache rebuild(Room room) {
+    MoveCache snapshot = MoveCache.builder()
+        .fen(room.getFen())
+        .captured(room.getCaptured() != null ? room.getCaptured() : CapturedPieceUtil.NONE)
+        .whitePlayerId(room.getWhitePlayer())
+        .blackPlayerId(room.getBlackPlayer())
+        .gameStatus(room.getGameStatus())
+        .lastActivity(room.getLastActivity())
+        .moveSequence(room.getMoveSequence() != null ? room.getMoveSequence() : 0L)
+        .zobristHash(room.getZobristHash())
+        .positionHistory(room.getPositionHistory())
+        .moveHistory(room.getMoveHistory())
+        .build();
+
+    // A paused game may have moves logged after its last snapshot too
+    if (GameOutcomeUtils.isFinished(snapshot.getGameStatus())) { return snapshot; }
+
+    return replay(snapshot, gameMoveRepository.findByRoomCodeAfter(room.getCode(), snapshot.getMoveSequence()));
+  }
+
+  /**
+   * Applies {@code moves}, ordered by sequence, to {@code cache} in place. Rows the snapshot already covers are
+   * skipped and replay stops at the first gap, so the result is never ahead of what the log can prove.
+   * A pending two-step promotion can't be told apart from a finished one in the log, so it lapses.
+   */
+  public static MoveCache replay(MoveCache cache, List<GameMove> moves) {
+    if (moves.isEmpty()) { return cache; }
+
+    BitBoard board = BitBoard.fromFen(cache.getFen());
+    long snapshotSequence = cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L;
+    long sequence = snapshotSequence;
+    int repetitions = 0;
+
+    for (GameMove logged : moves) {
+      if (logged.moveSequence() <= sequence) { continue; }
+      if (logged.moveSequence() != sequence + 1) { break; }
+
+      int move = logged.move();
+      int to = PackedMove.to(move);
+      if (logged.promotionChoice()) {
+        int promoted = board.pieceAt(to);
+        board.removePiece(promoted, to);
+        board.putPiece(BitBoard.piece(BitBoard.colorOf(promoted), PackedMove.promotionType(move)), to);
+        cache.setMoveHistory(RoomServiceHelper.withChosenPromotion(cache.getMoveHistory(), PackedMove.promotionType(move)));
+      } else {
+        int capturedPiece = board.makeMove(PackedMove.from(move), to, PackedMove.promotionType(move));
+        if (capturedPiece != BitBoard.NO_PIECE) {
+          cache.setCaptured(CapturedPieceUtil.recordCapture(cache.getCaptured(), capturedPiece));
+        }
+        cache.setMoveHistory(PackedMove.append(cache.getMoveHistory(), move));
+      }
+
+      repetitions = RoomServiceHelper.recordPosition(cache, board);
+      sequence = logged.moveSequence();
+      cache.setLastActivity(logged.playedAt());
+    }
+
+    if (sequence == snapshotSequence) { return cache; }
+    cache.setFen(board.toFen()).setMoveSequence(sequence).setPendingPromotionSquare(null);
+
+    GameStatus outcome = GameOutcomeUtils.evaluate(board, repetitions);
+    if (outcome != GameStatus.IN_PROGRESS) {
+      cache.setGameStatus(outcome).setWhitePlayerId(null).setBlackPlayerId(null);
+    }
+    return cache;
+  }
+}
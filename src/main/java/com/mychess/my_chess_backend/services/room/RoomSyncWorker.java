@@ -1,25 +1,41 @@
 package com.mychess.my_chess_backend.services.room;
 
 import com.mychess.my_chess_backend.dtos.redis.MoveCache;
-import com.mychess.my_chess_backend.models.Room;
 import com.mychess.my_chess_backend.repositories.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
 
+/**
+ * Snapshots the Redis state of rooms marked dirty into the database, once a room is {@code snapshot-every-moves}
+ * moves past its last snapshot or its game has ended. A room short of that stays marked until it is, or until it has
+ * been idle for {@code snapshot-idle-seconds}, when it is snapshotted anyway. Rooms are claimed with SPOP, so a room
+ * marked again while a pass runs stays in the set for the next one, and several instances can sync without a lock.
+ */
 @Service
+@Slf4j
 public class RoomSyncWorker {
   private final RedisGameService redisGameService;
   private final RoomRepository roomRepository;
   private final StringRedisTemplate stringRedisTemplate;
 
   private static final String SYNC_SET_KEY = "rooms_to_sync";
+  private static final int CHUNK_SIZE = 500;
+
+  // Moves in between are in the game_moves log, which RoomStateRebuilder replays on top of the snapshot
+  @Value("${spring.app.snapshot-every-moves:20}")
+  private long snapshotEveryMoves;
+
+  @Value("${spring.app.snapshot-idle-seconds:60}")
+  private long snapshotIdleSeconds;
 
   public RoomSyncWorker(
       RedisGameService redisGameService,
@@ -32,30 +48,49 @@ public class RoomSyncWorker {
   }
 
   @Scheduled(fixedDelay = 10000)
-  @Transactional
   public void syncRedisToDb() {
-    Set<String> roomCodes = stringRedisTemplate.opsForSet().members(SYNC_SET_KEY);
-    if (roomCodes == null || roomCodes.isEmpty()) { return; }
-
-    List<Room> rooms = roomRepository.findAllByCodeIn(roomCodes);
-
-    List<Room> updatedRooms = rooms.stream().map(room -> {
-      MoveCache cache = redisGameService.getMoveCache(room.getCode());
-      if (cache != null) {
-        room.setFen(cache.getFen());
-        room.setCapturedPieces(cache.getCapturedPieces());
-        room.setGameStatus(cache.getGameStatus());
-        room.setLastActivity(cache.getLastActivity());
-        return room;
+    List<String> notDue = new ArrayList<>();
+    try {
+      List<String> roomCodes;
+      while ((roomCodes = stringRedisTemplate.opsForSet().pop(SYNC_SET_KEY, CHUNK_SIZE)) != null && !roomCodes.isEmpty()) {
+        try {
+          notDue.addAll(syncChunk(roomCodes));
+        } catch (RuntimeException e) {
+          // Hand the claimed rooms back so the next pass retries them
+          stringRedisTemplate.opsForSet().add(SYNC_SET_KEY, roomCodes.toArray(String[]::new));
+          log.error("Room sync failed for {} rooms, requeued: {}", roomCodes.size(), e.getMessage(), e);
+          return;
+        }
+        if (roomCodes.size() < CHUNK_SIZE) { return; }
       }
+    } finally {
+      // Marked again only once the pass is over, so it doesn't claim them twice
+      if (!notDue.isEmpty()) {
+        stringRedisTemplate.opsForSet().add(SYNC_SET_KEY, notDue.toArray(String[]::new));
+      }
+    }
+  }
 
-      return null;
-    }).filter(Objects::nonNull).collect(Collectors.toList());
+  // Returns the rooms that are still active and not yet due for a snapshot
+  private List<String> syncChunk(List<String> roomCodes) {
+    Map<String, MoveCache> caches = redisGameService.getMoveCaches(roomCodes);
+    if (caches.isEmpty()) { return List.of(); }
 
-    if (!updatedRooms.isEmpty()) {
-      roomRepository.saveAll(updatedRooms);
-    }
+    List<String> behind = roomRepository.updateStates(caches, snapshotEveryMoves);
+    if (behind.isEmpty()) { return List.of(); }
 
-    stringRedisTemplate.delete(SYNC_SET_KEY);
+    LocalDateTime idleSince = LocalDateTime.now().minusSeconds(snapshotIdleSeconds);
+    Map<String, MoveCache> idle = new HashMap<>();
+    List<String> notDue = new ArrayList<>();
+    for (String code : behind) {
+      MoveCache cache = caches.get(code);
+      if (cache.getLastActivity() == null || cache.getLastActivity().isBefore(idleSince)) {
+        idle.put(code, cache);
+      } else {
+        notDue.add(code);
+      }
+    }
+    if (!idle.isEmpty()) { roomRepository.updateStates(idle); }
+    return notDue;
   }
-}
\ No newline at end of file
+}
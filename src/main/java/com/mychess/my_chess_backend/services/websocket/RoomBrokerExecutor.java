@@ -0,0 +1,92 @@
+package com.mychess.my_chess_backend.services.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Broker channel executor with one single-threaded lane per stripe. Messages are assigned a lane by destination,
+ * so a room's messages keep their order while a room with a huge audience only holds up the rooms sharing its lane.
+ * Each lane queues at most {@code laneCapacity} messages. Past that, broadcasts are shed and counted, like the
+ * per-session queues drop what a slow client can't take; clients that missed events can resume with a
+ * {@code since} header. Subscribes, unsubscribes and disconnects are never shed, the sender waits for room instead.
+ */
+@Slf4j
+public class RoomBrokerExecutor implements Executor {
+  private final ThreadPoolExecutor[] lanes;
+  private final AtomicInteger nextLane = new AtomicInteger();
+  private final Counter shed;
+
+  public RoomBrokerExecutor(int laneCount, int laneCapacity, MeterRegistry meterRegistry) {
+    lanes = new ThreadPoolExecutor[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      lanes[i] = new ThreadPoolExecutor(
+          1, 1, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(laneCapacity),
+          Thread.ofPlatform().name("room-broker-" + i).daemon().factory(),
+          this::laneFull
+      );
+    }
+    this.shed = meterRegistry.counter("stomp.broker.shed");
+    Gauge.builder("stomp.broker.lanes", lanes, executors -> executors.length).register(meterRegistry);
+    Gauge.builder("stomp.broker.queued", lanes, executors -> Arrays.stream(executors).mapToInt(lane -> lane.getQueue().size()).sum())
+        .description("Messages waiting for their lane")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    lanes[laneOf(task)].execute(task);
+  }
+
+  public void shutdown() {
+    for (ThreadPoolExecutor lane : lanes) {
+      lane.shutdown();
+    }
+  }
+
+  private void laneFull(Runnable task, ThreadPoolExecutor lane) {
+    if (lane.isShutdown()) { throw new RejectedExecutionException("Broker lane is shut down"); }
+
+    if (isBroadcast(task)) {
+      shed.increment();
+      if ((long) shed.count() % 1000 == 1) {
+        log.warn("Broker lane full, {} broadcasts shed so far", (long) shed.count());
+      }
+      return;
+    }
+
+    // Subscription changes decide where later broadcasts go, so losing one would be worse than waiting
+    try {
+      lane.getQueue().put(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted waiting for a broker lane", e);
+    }
+  }
+
+  private static boolean isBroadcast(Runnable task) {
+    return task instanceof MessageHandlingRunnable handling &&
+        SimpMessageHeaderAccessor.getMessageType(handling.getMessage().getHeaders()) == SimpMessageType.MESSAGE;
+  }
+
+  private int laneOf(Runnable task) {
+    String destination = task instanceof MessageHandlingRunnable handling ?
+        SimpMessageHeaderAccessor.getDestination(handling.getMessage().getHeaders()) :
+        null;
+    int key = destination != null ? destination.hashCode() : nextLane.getAndIncrement();
+    return Math.floorMod(key, lanes.length);
+  }
+}
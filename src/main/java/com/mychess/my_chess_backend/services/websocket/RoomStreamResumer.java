@@ -0,0 +1,113 @@
+package com.mychess.my_chess_backend.services.websocket;
+
+import com.mychess.my_chess_backend.services.events.RoomBroadcaster;
+import com.mychess.my_chess_backend.services.events.RoomEventRing;
+import com.mychess.my_chess_backend.services.room.RoomSnapshots;
+import com.mychess.my_chess_backend.utils.enums.EventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Resumes a room stream for a client that subscribes to {@code /topic/room.{code}} with a {@code since} header
+ * holding the last move sequence it saw: the events it missed are replayed from {@link RoomEventRing}, or, when the
+ * ring doesn't reach back that far, it gets the room's current snapshot.
+ * Runs as an interceptor on the client inbound channel, once the broker has handled the SUBSCRIBE. Events are
+ * recorded in the ring before they reach the broker, so each one is replayed, delivered live, or both: there is
+ * no gap, only an overlap with the first live events, which clients skip by {@code moveSequence} as they already do
+ * for out-of-order updates. A snapshot that isn't cached is built on a virtual thread and can arrive after newer
+ * live events, which clients skip the same way.
+ */
+@Component
+@Slf4j
+public class RoomStreamResumer implements ExecutorChannelInterceptor {
+  public static final String SINCE_HEADER = "since";
+
+  // Lazy: the channel is created by the WebSocket configuration this interceptor is registered with
+  private final ObjectProvider<MessageChannel> clientOutboundChannel;
+  private final RoomEventRing roomEventRing;
+  private final RoomSnapshots roomSnapshots;
+  private final Counter replays;
+  private final Counter snapshots;
+
+  public RoomStreamResumer(
+      @Qualifier("clientOutboundChannel") ObjectProvider<MessageChannel> clientOutboundChannel,
+      RoomEventRing roomEventRing,
+      RoomSnapshots roomSnapshots,
+      MeterRegistry meterRegistry
+  ) {
+    this.clientOutboundChannel = clientOutboundChannel;
+    this.roomEventRing = roomEventRing;
+    this.roomSnapshots = roomSnapshots;
+    this.replays = meterRegistry.counter("room_stream.resumes", "result", "replay");
+    this.snapshots = meterRegistry.counter("room_stream.resumes", "result", "snapshot");
+  }
+
+  @Override
+  public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+    if (ex != null || !(handler instanceof AbstractBrokerMessageHandler)) { return; }
+    if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) { return; }
+
+    StompHeaderAccessor subscribe = StompHeaderAccessor.wrap(message);
+    String destination = subscribe.getDestination();
+    String since = subscribe.getFirstNativeHeader(SINCE_HEADER);
+    if (since == null || destination == null || !destination.startsWith(RoomSubscriptionRegistry.ROOM_PREFIX)) { return; }
+
+    String code = destination.substring(RoomSubscriptionRegistry.ROOM_PREFIX.length());
+    List<RoomEventRing.Entry> missed = null;
+    try {
+      missed = roomEventRing.since(code, Long.parseLong(since.trim()));
+    } catch (NumberFormatException e) {
+      log.debug("Ignoring since header '{}' on {}", since, destination);
+    }
+
+    if (missed != null) {
+      replays.increment();
+      missed.forEach(entry -> send(subscribe, entry.eventType(), entry.body(), entry.text()));
+      return;
+    }
+
+    snapshots.increment();
+    byte[] cached = roomSnapshots.cached(code);
+    if (cached != null) {
+      send(subscribe, EventType.ROOM_UPDATE, cached, false);
+      return;
+    }
+    // Building it reads the room from Redis and the database, which must not hold up the inbound pool
+    Thread.ofVirtual().name("room-resume-" + code).start(() -> sendSnapshot(subscribe, code));
+  }
+
+  private void sendSnapshot(StompHeaderAccessor subscribe, String code) {
+    try {
+      send(subscribe, EventType.ROOM_UPDATE, roomSnapshots.current(code), false);
+    } catch (RuntimeException e) {
+      log.warn("Could not resume room {} for session {}: {}", code, subscribe.getSessionId(), e.getMessage());
+    }
+  }
+
+  // Addressed to the one subscription, the way the broker addresses each subscriber
+  private void send(StompHeaderAccessor subscribe, EventType eventType, byte[] body, boolean text) {
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headers.setSessionId(subscribe.getSessionId());
+    headers.setSubscriptionId(subscribe.getSubscriptionId());
+    headers.setDestination(subscribe.getDestination());
+    headers.setContentType(RoomBroadcaster.contentType(text));
+    headers.setHeader(RoomBroadcaster.EVENT_TYPE_HEADER, eventType);
+    headers.setLeaveMutable(true);
+    clientOutboundChannel.getObject().send(MessageBuilder.createMessage(body, headers.getMessageHeaders()));
+  }
+}
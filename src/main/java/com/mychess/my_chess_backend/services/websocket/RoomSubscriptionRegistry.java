@@ -0,0 +1,137 @@
+package com.mychess.my_chess_backend.services.websocket;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.MultiValueMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Subscription registry for the in-process broker that indexes {@code /topic/room.{code}} by room code, so finding
+ * a room's sessions is one map lookup instead of matching every subscription against the destination.
+ * Room destinations are matched exactly; anything else, wildcard subscriptions included, goes to Spring's
+ * {@link DefaultSubscriptionRegistry}. Lookups are lock-free and changes are serialized, subscribing being rare
+ * next to publishing.
+ */
+public class RoomSubscriptionRegistry implements SubscriptionRegistry {
+  public static final String ROOM_PREFIX = "/topic/room.";
+
+  private static final MultiValueMap<String, String> NONE = CollectionUtils.toMultiValueMap(Map.of());
+
+  private final SubscriptionRegistry others = new DefaultSubscriptionRegistry();
+  private final Map<String, RoomSubscriptions> rooms = new ConcurrentHashMap<>();
+  // session id -> subscription id -> room code, for room subscriptions only
+  private final Map<String, Map<String, String>> sessions = new HashMap<>();
+  private final DistributionSummary roomFanout;
+  private final DistributionSummary otherFanout;
+
+  // Session id -> subscription ids, with a MultiValueMap view over it that the broker iterates as is
+  private record RoomSubscriptions(Map<String, List<String>> bySession, MultiValueMap<String, String> view) {
+    RoomSubscriptions() {
+      this(new ConcurrentHashMap<>());
+    }
+
+    private RoomSubscriptions(Map<String, List<String>> bySession) {
+      this(bySession, CollectionUtils.unmodifiableMultiValueMap(CollectionUtils.toMultiValueMap(bySession)));
+    }
+  }
+
+  public RoomSubscriptionRegistry(MeterRegistry meterRegistry) {
+    this.roomFanout = fanoutSummary(meterRegistry, "room");
+    this.otherFanout = fanoutSummary(meterRegistry, "other");
+    Gauge.builder("stomp.broker.rooms", rooms, Map::size).register(meterRegistry);
+  }
+
+  @Override
+  public synchronized void registerSubscription(Message<?> message) {
+    MessageHeaders headers = message.getHeaders();
+    String code = roomCode(SimpMessageHeaderAccessor.getDestination(headers));
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+    String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+    if (code == null || sessionId == null || subscriptionId == null) {
+      others.registerSubscription(message);
+      return;
+    }
+
+    sessions.computeIfAbsent(sessionId, id -> new HashMap<>()).put(subscriptionId, code);
+    rooms.computeIfAbsent(code, key -> new RoomSubscriptions()).bySession()
+        .merge(sessionId, List.of(subscriptionId), (current, added) -> Stream.concat(current.stream(), added.stream()).toList());
+  }
+
+  @Override
+  public synchronized void unregisterSubscription(Message<?> message) {
+    MessageHeaders headers = message.getHeaders();
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+    String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+    Map<String, String> subscriptions = sessionId != null ? sessions.get(sessionId) : null;
+    String code = subscriptions != null ? subscriptions.remove(subscriptionId) : null;
+    if (code == null) {
+      others.unregisterSubscription(message);
+      return;
+    }
+
+    if (subscriptions.isEmpty()) { sessions.remove(sessionId); }
+    removeFromRoom(code, sessionId, subscriptionId);
+  }
+
+  @Override
+  public synchronized void unregisterAllSubscriptions(String sessionId) {
+    Map<String, String> subscriptions = sessions.remove(sessionId);
+    if (subscriptions != null) {
+      subscriptions.forEach((subscriptionId, code) -> removeFromRoom(code, sessionId, subscriptionId));
+    }
+    others.unregisterAllSubscriptions(sessionId);
+  }
+
+  @Override
+  public MultiValueMap<String, String> findSubscriptions(Message<?> message) {
+    String code = roomCode(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+    if (code == null) {
+      MultiValueMap<String, String> found = others.findSubscriptions(message);
+      otherFanout.record(found.size());
+      return found;
+    }
+
+    RoomSubscriptions room = rooms.get(code);
+    MultiValueMap<String, String> found = room != null ? room.view() : NONE;
+    roomFanout.record(found.size());
+    return found;
+  }
+
+  private void removeFromRoom(String code, String sessionId, String subscriptionId) {
+    RoomSubscriptions room = rooms.get(code);
+    if (room == null) { return; }
+
+    room.bySession().computeIfPresent(sessionId, (id, current) -> {
+      List<String> remaining = current.stream().filter(existing -> !existing.equals(subscriptionId)).toList();
+      return remaining.isEmpty() ? null : remaining;
+    });
+    if (room.bySession().isEmpty()) { rooms.remove(code); }
+  }
+
+  // Null for anything that isn't an exact room destination
+  private static String roomCode(String destination) {
+    if (destination == null || !destination.startsWith(ROOM_PREFIX)) { return null; }
+    String code = destination.substring(ROOM_PREFIX.length());
+    return code.isEmpty() || code.indexOf('*') >= 0 || code.indexOf('{') >= 0 ? null : code;
+  }
+
+  private static DistributionSummary fanoutSummary(MeterRegistry meterRegistry, String destination) {
+    return DistributionSummary.builder("stomp.broker.fanout")
+        .description("Sessions each published message was delivered to")
+        .baseUnit("sessions")
+        .tag("destination", destination)
+        .register(meterRegistry);
+  }
+}
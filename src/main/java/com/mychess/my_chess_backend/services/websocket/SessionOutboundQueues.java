@@ -0,0 +1,266 @@
+package com.mychess.my_chess_backend.services.websocket;
+
+import com.mychess.my_chess_backend.services.events.RoomBroadcaster;
+import com.mychess.my_chess_backend.services.room.RoomSnapshots;
+import com.mychess.my_chess_backend.utils.enums.EventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session outbound queue on the client outbound channel. Each session has at most one message on its way to
+ * the socket; the rest wait here, before STOMP encoding, where they can still be told apart.
+ * While a session is behind, queued {@code MOVE} and {@code ROOM_UPDATE} messages for a room collapse into one
+ * snapshot of the room ({@link RoomSnapshots}), resolved when it is sent, on a virtual thread unless it is cached.
+ * A session is disconnected only when what is left still exceeds the byte limit, or when a single send takes longer
+ * than the time limit.
+ */
+@Component
+@Slf4j
+public class SessionOutboundQueues implements ExecutorChannelInterceptor {
+  // Marks a queued message being let through, so preSend doesn't queue it again
+  private static final String RELEASED_HEADER = "outboundQueueReleased";
+  // Marks a queued message that stands in for a snapshot of its room
+  private static final String SNAPSHOT_HEADER = "outboundQueueSnapshot";
+
+  private enum Decision { SEND, QUEUED, OVERFLOW }
+
+  private final RoomSnapshots roomSnapshots;
+  private final Map<String, SessionQueue> queues = new ConcurrentHashMap<>();
+  private final Counter coalesced;
+  private final Counter bufferDisconnects;
+  private final Counter timeDisconnects;
+
+  @Getter
+  private final int sendBufferBytes;
+  @Getter
+  private final int sendTimeLimitMillis;
+
+  public SessionOutboundQueues(
+      RoomSnapshots roomSnapshots,
+      MeterRegistry meterRegistry,
+      @Value("${spring.app.websocket.send-buffer-kb:512}") int sendBufferKb,
+      @Value("${spring.app.websocket.send-time-limit-ms:20000}") int sendTimeLimitMillis
+  ) {
+    this.roomSnapshots = roomSnapshots;
+    this.sendBufferBytes = sendBufferKb * 1024;
+    this.sendTimeLimitMillis = sendTimeLimitMillis;
+    this.coalesced = meterRegistry.counter("websocket.outbound.coalesced");
+    this.bufferDisconnects = meterRegistry.counter("websocket.outbound.disconnects", "reason", "buffer");
+    this.timeDisconnects = meterRegistry.counter("websocket.outbound.disconnects", "reason", "time");
+    Gauge.builder("websocket.outbound.queued_bytes", queues, all -> all.values().stream().mapToLong(SessionQueue::pendingBytes).sum())
+        .register(meterRegistry);
+  }
+
+  /**
+   * Wraps the STOMP handler so sessions are known here from connect to close.
+   */
+  public WebSocketHandler decorate(WebSocketHandler handler) {
+    return new WebSocketHandlerDecorator(handler) {
+      @Override
+      public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        queues.put(session.getId(), new SessionQueue(session));
+        super.afterConnectionEstablished(session);
+      }
+
+      @Override
+      public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        queues.remove(session.getId());
+        super.afterConnectionClosed(session, closeStatus);
+      }
+    };
+  }
+
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    SessionQueue queue = queueOf(message);
+    if (queue == null || message.getHeaders().containsKey(RELEASED_HEADER)) { return message; }
+
+    return switch (queue.offer(message)) {
+      case SEND -> message;
+      case QUEUED -> null;
+      case OVERFLOW -> {
+        bufferDisconnects.increment();
+        close(queue, "more than " + sendBufferBytes + " bytes queued");
+        yield null;
+      }
+    };
+  }
+
+  @Override
+  public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+    SessionQueue queue = queueOf(message);
+    if (queue == null) { return; }
+
+    Message<?> next = queue.next();
+    if (next == null) { return; }
+    if (!next.getHeaders().containsKey(SNAPSHOT_HEADER)) {
+      release(next, channel);
+      return;
+    }
+
+    String code = roomCodeOf(next);
+    byte[] cached = roomSnapshots.cached(code);
+    if (cached != null) {
+      release(withSnapshot(next, cached), channel);
+      return;
+    }
+    // Building a snapshot reads the room from Redis and the database, which must not hold up the outbound pool.
+    // The session's next message waits for this one either way, so order is kept.
+    Thread.ofVirtual().name("room-snapshot-" + code).start(() -> release(resolve(next, code), channel));
+  }
+
+  private void release(Message<?> message, MessageChannel channel) {
+    try {
+      channel.send(MessageBuilder.fromMessage(message).setHeader(RELEASED_HEADER, Boolean.TRUE).build());
+    } catch (RuntimeException e) {
+      // Leaves the session in flight, so closeStuckSessions disconnects it
+      log.warn("Releasing a queued message to session {} failed: {}", SimpMessageHeaderAccessor.getSessionId(message.getHeaders()), e.getMessage());
+    }
+  }
+
+  @Scheduled(fixedDelay = 1000)
+  public void closeStuckSessions() {
+    long cutoff = System.currentTimeMillis() - sendTimeLimitMillis;
+    for (SessionQueue queue : queues.values()) {
+      if (queue.stuckSince(cutoff)) {
+        timeDisconnects.increment();
+        close(queue, "a send took longer than " + sendTimeLimitMillis + " ms");
+      }
+    }
+  }
+
+  private SessionQueue queueOf(Message<?> message) {
+    MessageHeaders headers = message.getHeaders();
+    if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE) { return null; }
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+    return sessionId != null ? queues.get(sessionId) : null;
+  }
+
+  // A snapshot stand-in becomes the room's current state; the latest event it replaced is the fallback
+  private Message<?> resolve(Message<?> message, String code) {
+    try {
+      return withSnapshot(message, roomSnapshots.current(code));
+    } catch (RuntimeException e) {
+      log.warn("Snapshot of room {} unavailable, sending the latest event instead: {}", code, e.getMessage());
+      return MessageBuilder.fromMessage(message).removeHeader(SNAPSHOT_HEADER).build();
+    }
+  }
+
+  private static Message<?> withSnapshot(Message<?> message, byte[] snapshot) {
+    return MessageBuilder.withPayload(snapshot)
+        .copyHeaders(message.getHeaders())
+        .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+        .setHeader(RoomBroadcaster.EVENT_TYPE_HEADER, EventType.ROOM_UPDATE)
+        .removeHeader(SNAPSHOT_HEADER)
+        .build();
+  }
+
+  private static String roomCodeOf(Message<?> message) {
+    return SimpMessageHeaderAccessor.getDestination(message.getHeaders()).substring(RoomSubscriptionRegistry.ROOM_PREFIX.length());
+  }
+
+  private void close(SessionQueue queue, String reason) {
+    queues.remove(queue.session.getId());
+    log.warn("Disconnecting slow WebSocket session {}: {}", queue.session.getId(), reason);
+    try {
+      queue.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+    } catch (IOException e) {
+      log.debug("Closing session {} failed: {}", queue.session.getId(), e.getMessage());
+    }
+  }
+
+  private static boolean coalescable(Message<?> message) {
+    Object eventType = message.getHeaders().get(RoomBroadcaster.EVENT_TYPE_HEADER);
+    return eventType == EventType.MOVE || eventType == EventType.ROOM_UPDATE;
+  }
+
+  private static int sizeOf(Message<?> message) {
+    return message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+  }
+
+  private final class SessionQueue {
+    private final WebSocketSession session;
+    private final ArrayDeque<Message<?>> pending = new ArrayDeque<>();
+    private long pendingBytes;
+    private boolean inFlight;
+    private long inFlightSince;
+
+    SessionQueue(WebSocketSession session) {
+      this.session = session;
+    }
+
+    synchronized Decision offer(Message<?> message) {
+      if (!inFlight) {
+        inFlight = true;
+        inFlightSince = System.currentTimeMillis();
+        return Decision.SEND;
+      }
+
+      pending.add(coalescable(message) && dropQueuedEventsFor(message) ?
+          MessageBuilder.fromMessage(message).setHeader(SNAPSHOT_HEADER, Boolean.TRUE).build() :
+          message);
+      pendingBytes += sizeOf(message);
+      return pendingBytes > sendBufferBytes ? Decision.OVERFLOW : Decision.QUEUED;
+    }
+
+    synchronized Message<?> next() {
+      Message<?> next = pending.poll();
+      if (next == null) {
+        inFlight = false;
+        return null;
+      }
+      pendingBytes -= sizeOf(next);
+      inFlightSince = System.currentTimeMillis();
+      return next;
+    }
+
+    synchronized long pendingBytes() {
+      return pendingBytes;
+    }
+
+    synchronized boolean stuckSince(long cutoff) {
+      return inFlight && inFlightSince < cutoff;
+    }
+
+    // Removes queued moves, room updates and snapshots for the message's room; true if there were any
+    private boolean dropQueuedEventsFor(Message<?> message) {
+      String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+      boolean dropped = false;
+      for (Iterator<Message<?>> it = pending.iterator(); it.hasNext(); ) {
+        Message<?> queued = it.next();
+        if (coalescable(queued) && destination != null && destination.equals(SimpMessageHeaderAccessor.getDestination(queued.getHeaders()))) {
+          it.remove();
+          pendingBytes -= sizeOf(queued);
+          coalesced.increment();
+          dropped = true;
+        }
+      }
+      return dropped;
+    }
+  }
+}
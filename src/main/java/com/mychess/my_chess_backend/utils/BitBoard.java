@@ -0,0 +1,217 @@
+package com.mychess.my_chess_backend.utils;
+
+/**
+ * Mutable chess position stored as one 64-bit board per piece type and color.
+ * Squares are numbered {@code row * 8 + col}, where row 0 is White's back rank and col 0 is the a-file,
+ * so a1 = 0 and h8 = 63. Moves are applied in place; FEN is read and written by {@link FenCodec}.
+ * The {@link Zobrist} hash of the position is updated by XOR as pieces and state change.
+ */
+public class BitBoard {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NO_PIECE = -1;
+    public static final int NO_SQUARE = -1;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    private static final char[] FEN_CHARS = { 'P', 'N', 'B', 'R', 'Q', 'K', 'p', 'n', 'b', 'r', 'q', 'k' };
+
+    // Castling rights that survive a move touching the given square
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) CASTLING_MASK[sq] = 15;
+        CASTLING_MASK[0] = ~WHITE_QUEENSIDE & 15;
+        CASTLING_MASK[7] = ~WHITE_KINGSIDE & 15;
+        CASTLING_MASK[4] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) & 15;
+        CASTLING_MASK[56] = ~BLACK_QUEENSIDE & 15;
+        CASTLING_MASK[63] = ~BLACK_KINGSIDE & 15;
+        CASTLING_MASK[60] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE) & 15;
+    }
+
+    // Indexed by color * 6 + type
+    private final long[] pieces = new long[12];
+    private final long[] occupancy = new long[2];
+    private int sideToMove = WHITE;
+    private int castlingRights;
+    private int enPassantSquare = NO_SQUARE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private long hash;
+
+    public static BitBoard fromFen(String fen) {
+        BitBoard board = new BitBoard();
+        board.loadFen(fen);
+        return board;
+    }
+
+    public static int piece(int color, int type) { return color * 6 + type; }
+    public static int colorOf(int piece) { return piece / 6; }
+    public static int typeOf(int piece) { return piece % 6; }
+    public static int square(int row, int col) { return row * 8 + col; }
+    public static int rowOf(int square) { return square >>> 3; }
+    public static int colOf(int square) { return square & 7; }
+
+    public void loadFen(String fen) {
+        FenCodec.read(fen, this);
+    }
+
+    public String toFen() {
+        return FenCodec.forCurrentThread().write(this);
+    }
+
+    public int pieceAt(int square) {
+        long bit = 1L << square;
+        if (((occupancy[WHITE] | occupancy[BLACK]) & bit) == 0) return NO_PIECE;
+
+        int first = (occupancy[WHITE] & bit) != 0 ? 0 : 6;
+        for (int piece = first; piece < first + 6; piece++) {
+            if ((pieces[piece] & bit) != 0) return piece;
+        }
+        return NO_PIECE;
+    }
+
+    public void putPiece(int piece, int square) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        occupancy[colorOf(piece)] |= bit;
+        hash ^= Zobrist.piece(piece, square);
+    }
+
+    public void removePiece(int piece, int square) {
+        long bit = ~(1L << square);
+        pieces[piece] &= bit;
+        occupancy[colorOf(piece)] &= bit;
+        hash ^= Zobrist.piece(piece, square);
+    }
+
+    /**
+     * Applies a move in place, handling captures, en passant, castling and promotion.
+     * {@code promotionType} is the piece type a pawn becomes on the last rank, or {@link #NO_PIECE}.
+     * Returns the captured piece, or {@link #NO_PIECE}.
+     */
+    public int makeMove(int from, int to, int promotionType) {
+        int piece = pieceAt(from);
+        if (piece == NO_PIECE) {
+            throw new IllegalArgumentException("No piece on square " + from);
+        }
+
+        int color = colorOf(piece);
+        int type = typeOf(piece);
+        int captured = pieceAt(to);
+
+        if (captured != NO_PIECE) {
+            removePiece(captured, to);
+        } else if (type == PAWN && to == enPassantSquare) {
+            int capturedSquare = color == WHITE ? to - 8 : to + 8;
+            captured = piece(color ^ 1, PAWN);
+            removePiece(captured, capturedSquare);
+        }
+
+        removePiece(piece, from);
+        if (type == PAWN && promotionType != NO_PIECE && (rowOf(to) == 7 || rowOf(to) == 0)) {
+            putPiece(piece(color, promotionType), to);
+        } else {
+            putPiece(piece, to);
+        }
+
+        if (type == KING && Math.abs(to - from) == 2) {
+            int rook = piece(color, ROOK);
+            boolean kingside = to > from;
+            int rookFrom = kingside ? from + 3 : from - 4;
+            int rookTo = kingside ? from + 1 : from - 1;
+            removePiece(rook, rookFrom);
+            putPiece(rook, rookTo);
+        }
+
+        hash ^= Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare);
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = type == PAWN && Math.abs(to - from) == 16 ? (from + to) >>> 1 : NO_SQUARE;
+        hash ^= Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare) ^ Zobrist.sideToMove();
+
+        halfmoveClock = type == PAWN || captured != NO_PIECE ? 0 : halfmoveClock + 1;
+        if (color == BLACK) fullmoveNumber++;
+        sideToMove = color ^ 1;
+        return captured;
+    }
+
+    public void copyFrom(BitBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        occupancy[WHITE] = other.occupancy[WHITE];
+        occupancy[BLACK] = other.occupancy[BLACK];
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        hash = other.hash;
+    }
+
+    public long getPieces(int piece) { return pieces[piece]; }
+    public long getOccupancy(int color) { return occupancy[color]; }
+    public long getAllOccupancy() { return occupancy[WHITE] | occupancy[BLACK]; }
+    public int getSideToMove() { return sideToMove; }
+    public int getCastlingRights() { return castlingRights; }
+    public int getEnPassantSquare() { return enPassantSquare; }
+    public int getHalfmoveClock() { return halfmoveClock; }
+    public int getFullmoveNumber() { return fullmoveNumber; }
+    public long getHash() { return hash; }
+
+    public static char fenChar(int piece) {
+        return FEN_CHARS[piece];
+    }
+
+    public static int pieceFromFenChar(char c) {
+        for (int piece = 0; piece < FEN_CHARS.length; piece++) {
+            if (FEN_CHARS[piece] == c) return piece;
+        }
+        throw new IllegalArgumentException("Invalid FEN piece: " + c);
+    }
+
+    public static int typeFromName(String type) {
+        return switch (type) {
+            case "pawn" -> PAWN;
+            case "knight" -> KNIGHT;
+            case "bishop" -> BISHOP;
+            case "rook" -> ROOK;
+            case "queen" -> QUEEN;
+            case "king" -> KING;
+            default -> throw new IllegalArgumentException("Invalid piece type " + type);
+        };
+    }
+
+    // Used by FenCodec after the pieces have been placed
+    void setState(int sideToMove, int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+        this.sideToMove = sideToMove;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+
+        if (sideToMove == BLACK) hash ^= Zobrist.sideToMove();
+        hash ^= Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare);
+    }
+
+    void clear() {
+        for (int piece = 0; piece < pieces.length; piece++) pieces[piece] = 0L;
+        occupancy[WHITE] = 0L;
+        occupancy[BLACK] = 0L;
+        sideToMove = WHITE;
+        castlingRights = 0;
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        hash = 0L;
+    }
+}
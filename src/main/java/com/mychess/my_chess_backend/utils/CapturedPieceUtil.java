@@ -1,67 +1,79 @@
 package com.mychess.my_chess_backend.utils;
 
-import com.mychess.my_chess_backend.dtos.shared.Piece;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
-
+/**
+ * Captured material packed into a single long: one 4-bit counter per {@link BitBoard} piece index,
+ * so recording a capture is one add. The client string format is only produced at the DTO edge.
+ */
 public class CapturedPieceUtil {
-    public static String recordCapture(String capturedString, Piece capturedPiece) {
-        String capturedPieceType = capturedPiece.getType();
-        String capturedPieceColor = capturedPiece.getColor();
+    public static final long NONE = 0L;
 
-        String[] parts = capturedString.split("/");
-        String blackSection = parts[0];
-        String whiteSection = parts[1];
+    private static final int[] PIECE_VALUES = { 1, 3, 3, 5, 9, 0 };
+    // Client order per side: "r0n0b0q0p0k0/R0N0B0Q0P0K0", black section first
+    private static final int[] CLIENT_ORDER = {
+        BitBoard.ROOK, BitBoard.KNIGHT, BitBoard.BISHOP, BitBoard.QUEEN, BitBoard.PAWN, BitBoard.KING
+    };
 
-        if (capturedPieceColor.equalsIgnoreCase("b")) {
-            blackSection = increment(blackSection, capturedPieceType.toLowerCase().charAt(0));
-        } else {
-            whiteSection = increment(whiteSection, Character.toUpperCase(capturedPieceType.charAt(0)));
-        }
+    public static long recordCapture(long captured, int capturedPiece) {
+        return captured + (1L << (capturedPiece << 2));
+    }
 
-        return blackSection + "/" + whiteSection;
+    public static int count(long captured, int piece) {
+        return (int) (captured >>> (piece << 2)) & 15;
     }
 
-    private static String increment(String section, char targetPiece) {
-        Map<Character, Integer> counts = parseSection(section);
-        counts.put(targetPiece, counts.getOrDefault(targetPiece, 0) + 1);
-        return buildSection(counts);
+    /**
+     * Value of the black pieces White has captured minus the value of the white pieces Black has captured.
+     */
+    public static int materialBalance(long captured) {
+        int balance = 0;
+        for (int type = BitBoard.PAWN; type < BitBoard.KING; type++) {
+            balance += PIECE_VALUES[type] * (
+                count(captured, BitBoard.piece(BitBoard.BLACK, type)) -
+                count(captured, BitBoard.piece(BitBoard.WHITE, type))
+            );
+        }
+        return balance;
     }
 
-    private static Map<Character, Integer> parseSection(String section) {
-        Map<Character, Integer> map = new HashMap<>();
-        if (section == null || section.isEmpty()) return map;
+    public static String toCapturedString(long captured) {
+        StringBuilder sb = new StringBuilder(25);
+        appendSection(sb, captured, BitBoard.BLACK);
+        sb.append('/');
+        appendSection(sb, captured, BitBoard.WHITE);
+        return sb.toString();
+    }
 
-        StringBuilder number = new StringBuilder();
-        char currentPiece = 0;
+    /**
+     * Reads the client string format, e.g. from rooms and caches written before captures were packed.
+     */
+    public static long parse(String capturedString) {
+        long captured = NONE;
+        if (capturedString == null) return captured;
 
-        for (int i = 0; i < section.length(); i++) {
-            char c = section.charAt(i);
-            if (Character.isLetter(c)) {
-                // Save previous piece if any
-                if (currentPiece != 0 && !number.isEmpty()) {
-                    map.put(currentPiece, Integer.parseInt(number.toString()));
-                    number.setLength(0);
-                }
-                currentPiece = c;
-            } else if (Character.isDigit(c)) {
-                number.append(c);
+        int piece = BitBoard.NO_PIECE;
+        int count = 0;
+        for (int i = 0; i < capturedString.length(); i++) {
+            char c = capturedString.charAt(i);
+            if (Character.isDigit(c)) {
+                count = count * 10 + (c - '0');
+            } else if (Character.isLetter(c)) {
+                captured = addCount(captured, piece, count);
+                piece = BitBoard.pieceFromFenChar(c);
+                count = 0;
             }
         }
+        return addCount(captured, piece, count);
+    }
 
-        if (currentPiece != 0 && !number.isEmpty()) {
-            map.put(currentPiece, Integer.parseInt(number.toString()));
-        }
-
-        return map;
+    private static long addCount(long captured, int piece, int count) {
+        if (piece == BitBoard.NO_PIECE) return captured;
+        return captured + ((long) Math.min(count, 15) << (piece << 2));
     }
 
-    private static String buildSection(Map<Character, Integer> counts) {
-        return counts.entrySet().stream()
-                .map(e -> e.getKey().toString() + e.getValue())
-                .collect(Collectors.joining());
+    private static void appendSection(StringBuilder sb, long captured, int color) {
+        for (int type : CLIENT_ORDER) {
+            int piece = BitBoard.piece(color, type);
+            sb.append(BitBoard.fenChar(piece)).append(count(captured, piece));
+        }
     }
 }
-
@@ -0,0 +1,144 @@
+package com.mychess.my_chess_backend.utils;
+
+import static com.mychess.my_chess_backend.utils.BitBoard.*;
+
+/**
+ * Single-pass FEN reader and writer for {@link BitBoard}.
+ * Reading needs no buffer at all; writing fills a reusable char buffer, so the only allocation is the result String.
+ * Instances are not thread-safe; use {@link #forCurrentThread()} or keep one per owner.
+ */
+public class FenCodec {
+    // 64 placement chars, 7 separators, side, 4 castling, 2 en passant, two counters and spaces
+    private static final int MAX_FEN_LENGTH = 128;
+    private static final ThreadLocal<FenCodec> CODECS = ThreadLocal.withInitial(FenCodec::new);
+
+    private final char[] buffer = new char[MAX_FEN_LENGTH];
+
+    public static FenCodec forCurrentThread() {
+        return CODECS.get();
+    }
+
+    /**
+     * Reads all six FEN fields into {@code board}, replacing its contents. Missing trailing fields keep their defaults.
+     */
+    public static void read(CharSequence fen, BitBoard board) {
+        board.clear();
+        int length = fen.length();
+        int i = 0;
+        int row = 7;
+        int col = 0;
+
+        for (; i < length; i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') break;
+            if (c == '/') {
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                board.putPiece(pieceFromFenChar(c), square(row, col));
+                col++;
+            }
+        }
+
+        int side = WHITE;
+        i++;
+        if (i < length) {
+            side = fen.charAt(i) == 'b' ? BLACK : WHITE;
+            i += 2;
+        }
+
+        int castling = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K' -> castling |= WHITE_KINGSIDE;
+                case 'Q' -> castling |= WHITE_QUEENSIDE;
+                case 'k' -> castling |= BLACK_KINGSIDE;
+                case 'q' -> castling |= BLACK_QUEENSIDE;
+                default -> { }
+            }
+        }
+
+        int enPassant = NO_SQUARE;
+        i++;
+        if (i + 1 < length && fen.charAt(i) != '-') {
+            enPassant = square(fen.charAt(i + 1) - '1', fen.charAt(i) - 'a');
+        }
+        while (i < length && fen.charAt(i) != ' ') i++;
+
+        int halfmove = 0;
+        for (i++; i < length && fen.charAt(i) != ' '; i++) halfmove = halfmove * 10 + (fen.charAt(i) - '0');
+
+        int fullmove = 0;
+        for (i++; i < length && fen.charAt(i) != ' '; i++) fullmove = fullmove * 10 + (fen.charAt(i) - '0');
+
+        board.setState(side, castling, enPassant, halfmove, fullmove == 0 ? 1 : fullmove);
+    }
+
+    public String write(BitBoard board) {
+        char[] out = buffer;
+        int n = 0;
+
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int piece = board.pieceAt(square(row, col));
+                if (piece == NO_PIECE) {
+                    empty++;
+                } else {
+                    if (empty > 0) { out[n++] = (char) ('0' + empty); empty = 0; }
+                    out[n++] = fenChar(piece);
+                }
+            }
+            if (empty > 0) out[n++] = (char) ('0' + empty);
+            if (row > 0) out[n++] = '/';
+        }
+
+        out[n++] = ' ';
+        out[n++] = board.getSideToMove() == WHITE ? 'w' : 'b';
+        out[n++] = ' ';
+
+        int castling = board.getCastlingRights();
+        if (castling == 0) {
+            out[n++] = '-';
+        } else {
+            if ((castling & WHITE_KINGSIDE) != 0) out[n++] = 'K';
+            if ((castling & WHITE_QUEENSIDE) != 0) out[n++] = 'Q';
+            if ((castling & BLACK_KINGSIDE) != 0) out[n++] = 'k';
+            if ((castling & BLACK_QUEENSIDE) != 0) out[n++] = 'q';
+        }
+
+        out[n++] = ' ';
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant == NO_SQUARE) {
+            out[n++] = '-';
+        } else {
+            out[n++] = (char) ('a' + colOf(enPassant));
+            out[n++] = (char) ('1' + rowOf(enPassant));
+        }
+
+        out[n++] = ' ';
+        n = writeInt(out, n, board.getHalfmoveClock());
+        out[n++] = ' ';
+        n = writeInt(out, n, board.getFullmoveNumber());
+        return new String(out, 0, n);
+    }
+
+    /**
+     * Side to move read straight from the second field, without splitting the FEN.
+     */
+    public static int sideToMove(CharSequence fen) {
+        int length = fen.length();
+        for (int i = 0; i < length - 1; i++) {
+            if (fen.charAt(i) == ' ') return fen.charAt(i + 1) == 'b' ? BLACK : WHITE;
+        }
+        return WHITE;
+    }
+
+    private static int writeInt(char[] out, int n, int value) {
+        if (value >= 10) n = writeInt(out, n, value / 10);
+        out[n++] = (char) ('0' + value % 10);
+        return n;
+    }
+}
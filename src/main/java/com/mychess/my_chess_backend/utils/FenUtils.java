@@ -7,7 +7,6 @@ import com.mychess.my_chess_backend.utils.enums.ChessPieceColor;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 public class FenUtils {
     public static List<Piece> parseFenToPieces(String fen) {
@@ -51,10 +50,6 @@ public class FenUtils {
             char symbol = ChessPiece.toFenChar(piece.getType(), piece.getColor());
             board[fenRow][piece.getCol()] = symbol;
         }
-        for (int i = 0; i < 8; i++) {
-            System.out.println(Arrays.toString(board[i]));
-        }
-
         StringBuilder fen = new StringBuilder();
         for (int row = 0; row < 8; row++) {
             int empty = 0;
@@ -92,11 +87,14 @@ public class FenUtils {
     }
 
     public static String getTurn(String fen) {
-        String[] parts = fen.split(" ");
-        return parts[1];
+        return FenCodec.sideToMove(fen) == BitBoard.WHITE ?
+                ChessPieceColor.WHITE.getValue() :
+                ChessPieceColor.BLACK.getValue();
     }
 
     public static String getNextTurn(String fen) {
-        return Objects.equals(getTurn(fen), "w") ? "b" : "w";
+        return FenCodec.sideToMove(fen) == BitBoard.WHITE ?
+                ChessPieceColor.BLACK.getValue() :
+                ChessPieceColor.WHITE.getValue();
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.mychess.my_chess_backend.utils;
+
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+
+import static com.mychess.my_chess_backend.utils.BitBoard.*;
+
+/**
+ * Decides whether the position after a move has ended the game.
+ * Stops at the first legal move it finds, so a game that goes on costs one partial move generation.
+ */
+public class GameOutcomeUtils {
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+    private static final long DARK_SQUARES = ~LIGHT_SQUARES;
+    private static final int FIFTY_MOVE_HALFMOVES = 100;
+
+    public static GameStatus evaluate(BitBoard board, int repetitions) {
+        int side = board.getSideToMove();
+        if (!MoveGenerator.hasLegalMove(board)) {
+            if (MoveGenerator.isInCheck(board, side)) {
+                return side == WHITE ? GameStatus.BLACK_WON : GameStatus.WHITE_WON;
+            }
+            return GameStatus.DRAW;
+        }
+
+        if (
+            board.getHalfmoveClock() >= FIFTY_MOVE_HALFMOVES ||
+            repetitions >= 3 ||
+            hasInsufficientMaterial(board)
+        ) {
+            return GameStatus.DRAW;
+        }
+        return GameStatus.IN_PROGRESS;
+    }
+
+    // Cancelled and paused games are not over: they have no result
+    public static boolean isFinished(GameStatus status) {
+        return status == GameStatus.WHITE_WON || status == GameStatus.BLACK_WON || status == GameStatus.DRAW;
+    }
+
+    /**
+     * Counts how often the last hash in {@code history} occurs in it. The history only holds positions since the
+     * last capture or pawn move and a repeat needs the same side to move, so at most 50 longs are compared.
+     */
+    public static int countRepetitions(long[] history) {
+        int last = history.length - 1;
+        int count = 0;
+        for (int i = last; i >= 0; i -= 2) {
+            if (history[i] == history[last]) count++;
+        }
+        return count;
+    }
+
+    public static boolean hasInsufficientMaterial(BitBoard board) {
+        long heavy = 0L;
+        for (int color = WHITE; color <= BLACK; color++) {
+            heavy |= board.getPieces(piece(color, PAWN))
+                | board.getPieces(piece(color, ROOK))
+                | board.getPieces(piece(color, QUEEN));
+        }
+        if (heavy != 0) return false;
+
+        long knights = board.getPieces(piece(WHITE, KNIGHT)) | board.getPieces(piece(BLACK, KNIGHT));
+        long bishops = board.getPieces(piece(WHITE, BISHOP)) | board.getPieces(piece(BLACK, BISHOP));
+        if (Long.bitCount(knights | bishops) <= 1) return true;
+
+        // Any number of bishops all on the same square color can never mate
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & DARK_SQUARES) == 0);
+    }
+}
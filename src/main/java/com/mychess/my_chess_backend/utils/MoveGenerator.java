@@ -0,0 +1,286 @@
+package com.mychess.my_chess_backend.utils;
+
+import static com.mychess.my_chess_backend.utils.BitBoard.*;
+
+/**
+ * Legal move generator over {@link BitBoard} positions.
+ * Leaper attacks come from precomputed tables and slider attacks from precomputed rays cut at the first blocker.
+ * Moves are {@link PackedMove} values held in ints.
+ */
+public class MoveGenerator {
+    public static final int NO_MOVE = -1;
+    public static final int MAX_MOVES = 256;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Ray directions: N, E, NE, NW are increasing square numbers; S, W, SW, SE decreasing
+    private static final int NORTH = 0, EAST = 1, NORTH_EAST = 2, NORTH_WEST = 3;
+    private static final int SOUTH = 4, WEST = 5, SOUTH_WEST = 6, SOUTH_EAST = 7;
+    private static final int[][] DIRECTION_STEPS = {
+        { 1, 0 }, { 0, 1 }, { 1, 1 }, { 1, -1 }, { -1, 0 }, { 0, -1 }, { -1, -1 }, { -1, 1 }
+    };
+    private static final long[][] RAYS = new long[8][64];
+
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = 0xFFL << 56;
+
+    static {
+        int[][] knightSteps = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } };
+        int[][] kingSteps = { { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 }, { -1, 0 }, { -1, -1 }, { 0, -1 }, { 1, -1 } };
+
+        for (int sq = 0; sq < 64; sq++) {
+            int row = rowOf(sq);
+            int col = colOf(sq);
+            KNIGHT_ATTACKS[sq] = leaperAttacks(row, col, knightSteps);
+            KING_ATTACKS[sq] = leaperAttacks(row, col, kingSteps);
+            PAWN_ATTACKS[WHITE][sq] = leaperAttacks(row, col, new int[][] { { 1, -1 }, { 1, 1 } });
+            PAWN_ATTACKS[BLACK][sq] = leaperAttacks(row, col, new int[][] { { -1, -1 }, { -1, 1 } });
+
+            for (int dir = 0; dir < 8; dir++) {
+                long ray = 0L;
+                int r = row + DIRECTION_STEPS[dir][0];
+                int c = col + DIRECTION_STEPS[dir][1];
+                while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    ray |= 1L << square(r, c);
+                    r += DIRECTION_STEPS[dir][0];
+                    c += DIRECTION_STEPS[dir][1];
+                }
+                RAYS[dir][sq] = ray;
+            }
+        }
+    }
+
+    /**
+     * Returns the legal move matching the given squares, or {@link #NO_MOVE}.
+     * A pawn reaching the last rank without a chosen {@code promotionType} promotes to a queen.
+     */
+    public static int findLegalMove(BitBoard board, int from, int to, int promotionType) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generateLegalMoves(board, moves);
+        int promotion = promotionType == NO_PIECE ? QUEEN : promotionType;
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (PackedMove.from(move) != from || PackedMove.to(move) != to) continue;
+
+            int movePromotion = PackedMove.promotionType(move);
+            if (movePromotion == NO_PIECE || movePromotion == promotion) return move;
+        }
+        return NO_MOVE;
+    }
+
+    /**
+     * Fills {@code moves} with every legal move for the side to move and returns how many were written.
+     */
+    public static int generateLegalMoves(BitBoard board, int[] moves) {
+        int count = generatePseudoLegalMoves(board, moves);
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            if (isLegal(board, moves[i])) moves[legal++] = moves[i];
+        }
+        return legal;
+    }
+
+    public static boolean hasLegalMove(BitBoard board) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generatePseudoLegalMoves(board, moves);
+        for (int i = 0; i < count; i++) {
+            if (isLegal(board, moves[i])) return true;
+        }
+        return false;
+    }
+
+    public static boolean isInCheck(BitBoard board, int color) {
+        long king = board.getPieces(piece(color, KING));
+        return king != 0 && isSquareAttacked(board, Long.numberOfTrailingZeros(king), color ^ 1);
+    }
+
+    public static boolean isSquareAttacked(BitBoard board, int square, int byColor) {
+        return isSquareAttacked(board, square, byColor, board.getAllOccupancy(), 0L);
+    }
+
+    /**
+     * Generates moves that obey piece movement rules but may leave the mover's own king in check.
+     * Castling is only generated when the king does not start on or pass through an attacked square.
+     */
+    public static int generatePseudoLegalMoves(BitBoard board, int[] moves) {
+        int us = board.getSideToMove();
+        int them = us ^ 1;
+        long own = board.getOccupancy(us);
+        long enemy = board.getOccupancy(them);
+        long occupied = own | enemy;
+        int count = 0;
+
+        long pawns = board.getPieces(piece(us, PAWN));
+        int forward = us == WHITE ? 8 : -8;
+        long promotionRank = us == WHITE ? RANK_8 : RANK_1;
+        long doublePushRank = us == WHITE ? 0xFFL << 16 : 0xFFL << 40;
+        int enPassant = board.getEnPassantSquare();
+        long enPassantBit = enPassant == NO_SQUARE ? 0L : 1L << enPassant;
+
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            int to = from + forward;
+            long toBit = 1L << to;
+            if ((occupied & toBit) == 0) {
+                count = addPawnMove(moves, count, from, to, (toBit & promotionRank) != 0);
+                int doubleTo = to + forward;
+                if ((toBit & doublePushRank) != 0 && (occupied & (1L << doubleTo)) == 0) {
+                    moves[count++] = PackedMove.encode(from, doubleTo, NO_PIECE);
+                }
+            }
+
+            long captures = PAWN_ATTACKS[us][from] & (enemy | enPassantBit);
+            while (captures != 0) {
+                int target = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                count = addPawnMove(moves, count, from, target, ((1L << target) & promotionRank) != 0);
+            }
+        }
+
+        for (int type = KNIGHT; type <= KING; type++) {
+            long bits = board.getPieces(piece(us, type));
+            while (bits != 0) {
+                int from = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                long targets = attacks(type, from, occupied) & ~own;
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    moves[count++] = PackedMove.encode(from, to, NO_PIECE);
+                }
+            }
+        }
+
+        return addCastlingMoves(board, moves, count, us, occupied);
+    }
+
+    /**
+     * A pseudo-legal move is legal when the mover's king is not attacked afterwards.
+     * Checked on the occupancy the move would leave behind, without touching the board.
+     */
+    public static boolean isLegal(BitBoard board, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int us = board.getSideToMove();
+        int them = us ^ 1;
+
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        long removed = toBit;
+        long occupied = (board.getAllOccupancy() & ~fromBit) | toBit;
+
+        boolean isPawn = (board.getPieces(piece(us, PAWN)) & fromBit) != 0;
+        if (isPawn && to == board.getEnPassantSquare()) {
+            long capturedBit = 1L << (us == WHITE ? to - 8 : to + 8);
+            occupied &= ~capturedBit;
+            removed |= capturedBit;
+        }
+
+        long king = board.getPieces(piece(us, KING));
+        int kingSquare = (king & fromBit) != 0 ? to : Long.numberOfTrailingZeros(king);
+        return !isSquareAttacked(board, kingSquare, them, occupied, removed);
+    }
+
+    public static long attacks(int type, int square, long occupied) {
+        return switch (type) {
+            case KNIGHT -> KNIGHT_ATTACKS[square];
+            case BISHOP -> bishopAttacks(square, occupied);
+            case ROOK -> rookAttacks(square, occupied);
+            case QUEEN -> bishopAttacks(square, occupied) | rookAttacks(square, occupied);
+            case KING -> KING_ATTACKS[square];
+            default -> throw new IllegalArgumentException("No attack table for piece type " + type);
+        };
+    }
+
+    public static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        return positiveRay(NORTH_EAST, square, occupied) | positiveRay(NORTH_WEST, square, occupied)
+            | negativeRay(SOUTH_EAST, square, occupied) | negativeRay(SOUTH_WEST, square, occupied);
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        return positiveRay(NORTH, square, occupied) | positiveRay(EAST, square, occupied)
+            | negativeRay(SOUTH, square, occupied) | negativeRay(WEST, square, occupied);
+    }
+
+    private static boolean isSquareAttacked(BitBoard board, int square, int byColor, long occupied, long removed) {
+        long keep = ~removed;
+        long queens = board.getPieces(piece(byColor, QUEEN));
+        long diagonal = (board.getPieces(piece(byColor, BISHOP)) | queens) & keep;
+        long straight = (board.getPieces(piece(byColor, ROOK)) | queens) & keep;
+
+        return (PAWN_ATTACKS[byColor ^ 1][square] & board.getPieces(piece(byColor, PAWN)) & keep) != 0
+            || (KNIGHT_ATTACKS[square] & board.getPieces(piece(byColor, KNIGHT)) & keep) != 0
+            || (KING_ATTACKS[square] & board.getPieces(piece(byColor, KING))) != 0
+            || (diagonal != 0 && (bishopAttacks(square, occupied) & diagonal) != 0)
+            || (straight != 0 && (rookAttacks(square, occupied) & straight) != 0);
+    }
+
+    private static int addCastlingMoves(BitBoard board, int[] moves, int count, int us, long occupied) {
+        int rights = board.getCastlingRights();
+        int kingSide = us == WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenSide = us == WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        if ((rights & (kingSide | queenSide)) == 0) return count;
+
+        int kingSquare = us == WHITE ? 4 : 60;
+        long rooks = board.getPieces(piece(us, ROOK));
+        if ((board.getPieces(piece(us, KING)) & (1L << kingSquare)) == 0) return count;
+        if (isSquareAttacked(board, kingSquare, us ^ 1)) return count;
+
+        if ((rights & kingSide) != 0
+            && (rooks & (1L << (kingSquare + 3))) != 0
+            && (occupied & (3L << (kingSquare + 1))) == 0
+            && !isSquareAttacked(board, kingSquare + 1, us ^ 1)) {
+            moves[count++] = PackedMove.encode(kingSquare, kingSquare + 2, NO_PIECE);
+        }
+        if ((rights & queenSide) != 0
+            && (rooks & (1L << (kingSquare - 4))) != 0
+            && (occupied & (7L << (kingSquare - 3))) == 0
+            && !isSquareAttacked(board, kingSquare - 1, us ^ 1)) {
+            moves[count++] = PackedMove.encode(kingSquare, kingSquare - 2, NO_PIECE);
+        }
+        return count;
+    }
+
+    private static int addPawnMove(int[] moves, int count, int from, int to, boolean promotes) {
+        if (!promotes) {
+            moves[count++] = PackedMove.encode(from, to, NO_PIECE);
+            return count;
+        }
+        for (int type = QUEEN; type >= KNIGHT; type--) {
+            moves[count++] = PackedMove.encode(from, to, type);
+        }
+        return count;
+    }
+
+    private static long positiveRay(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        return blockers == 0 ? ray : ray ^ RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+    }
+
+    private static long negativeRay(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        return blockers == 0 ? ray : ray ^ RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+    }
+
+    private static long leaperAttacks(int row, int col, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) attacks |= 1L << square(r, c);
+        }
+        return attacks;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mychess.my_chess_backend.utils;
+
+import java.util.Arrays;
+
+/**
+ * 16-bit move encoding shared by the move generator, the wire format and the stored move history.
+ * Bits 0-5 hold the from square, bits 6-11 the to square (a1 = 0, h8 = 63) and bits 12-15 the promotion
+ * piece type (0 for none, otherwise {@link BitBoard#KNIGHT} to {@link BitBoard#QUEEN}).
+ * Capture, castling and en passant are implied by the position, so they need no flags.
+ */
+public class PackedMove {
+    public static int encode(int from, int to, int promotionType) {
+        return from | (to << 6) | ((promotionType == BitBoard.NO_PIECE ? 0 : promotionType) << 12);
+    }
+
+    public static int from(int move) { return move & 63; }
+    public static int to(int move) { return (move >>> 6) & 63; }
+
+    public static int promotionType(int move) {
+        int type = (move >>> 12) & 15;
+        return type == 0 ? BitBoard.NO_PIECE : type;
+    }
+
+    public static int withPromotion(int move, int promotionType) {
+        return encode(from(move), to(move), promotionType);
+    }
+
+    public static short[] append(short[] history, int move) {
+        if (history == null) return new short[] { (short) move };
+
+        short[] appended = Arrays.copyOf(history, history.length + 1);
+        appended[history.length] = (short) move;
+        return appended;
+    }
+
+    // Long algebraic form, e.g. "e2e4" or "e7e8q", for logs and exports
+    public static String toUci(int move) {
+        StringBuilder sb = new StringBuilder(5)
+            .append((char) ('a' + BitBoard.colOf(from(move))))
+            .append((char) ('1' + BitBoard.rowOf(from(move))))
+            .append((char) ('a' + BitBoard.colOf(to(move))))
+            .append((char) ('1' + BitBoard.rowOf(to(move))));
+
+        int promotionType = promotionType(move);
+        if (promotionType != BitBoard.NO_PIECE) {
+            sb.append(BitBoard.fenChar(BitBoard.piece(BitBoard.BLACK, promotionType)));
+        }
+        return sb.toString();
+    }
+}
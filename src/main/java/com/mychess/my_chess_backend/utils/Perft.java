@@ -0,0 +1,156 @@
+package com.mychess.my_chess_backend.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft: counts the leaf nodes of the legal move tree to a fixed depth and compares them with published counts.
+ * Any bug in move generation or {@link BitBoard#makeMove} shows up as a wrong count, and the run doubles as a
+ * generator speed benchmark. Run {@link #main} for nodes per second in single-threaded and root-split parallel mode.
+ */
+public class Perft {
+    public record Position(String name, String fen, long... expectedNodes) {
+        public int maxDepth() { return expectedNodes.length; }
+        public long expectedNodes(int depth) { return expectedNodes[depth - 1]; }
+    }
+
+    // Reference positions and counts from the Chess Programming Wiki "Perft Results" page
+    public static final List<Position> POSITIONS = List.of(
+        new Position(
+            "start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20, 400, 8_902, 197_281, 4_865_609, 119_060_324
+        ),
+        new Position(
+            "kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48, 2_039, 97_862, 4_085_603, 193_690_690
+        ),
+        new Position(
+            "position3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14, 191, 2_812, 43_238, 674_624, 11_030_083
+        ),
+        new Position(
+            "position4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6, 264, 9_467, 422_333, 15_833_292
+        ),
+        new Position(
+            "position5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44, 1_486, 62_379, 2_103_487, 89_941_194
+        ),
+        new Position(
+            "position6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46, 2_079, 89_890, 3_894_594, 164_075_551
+        )
+    );
+
+    private final BitBoard[] boards;
+    private final int[][] moves;
+
+    private Perft(int depth) {
+        boards = new BitBoard[depth + 1];
+        moves = new int[depth + 1][MoveGenerator.MAX_MOVES];
+        for (int i = 0; i <= depth; i++) boards[i] = new BitBoard();
+    }
+
+    public static long perft(BitBoard board, int depth) {
+        if (depth == 0) return 1;
+
+        Perft perft = new Perft(depth);
+        perft.boards[depth].copyFrom(board);
+        return perft.count(depth);
+    }
+
+    /**
+     * Splits the root moves across {@code pool}, one task per move, each with its own board stack.
+     */
+    public static long perftParallel(BitBoard board, int depth, ForkJoinPool pool) {
+        if (depth <= 1) return perft(board, depth);
+
+        int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(board, rootMoves);
+
+        List<RecursiveTask<Long>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BitBoard child = new BitBoard();
+            child.copyFrom(board);
+            int move = rootMoves[i];
+            child.makeMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotionType(move));
+
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected Long compute() {
+                    return perft(child, depth - 1);
+                }
+            });
+        }
+
+        return pool.invoke(new RecursiveTask<>() {
+            @Override
+            protected Long compute() {
+                long nodes = 0;
+                for (RecursiveTask<Long> task : invokeAll(tasks)) nodes += task.join();
+                return nodes;
+            }
+        });
+    }
+
+    // Depth 1 is counted from the move list without making the moves (bulk counting)
+    private long count(int depth) {
+        BitBoard board = boards[depth];
+        int[] list = moves[depth];
+        int count = MoveGenerator.generateLegalMoves(board, list);
+        if (depth == 1) return count;
+
+        BitBoard child = boards[depth - 1];
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            child.copyFrom(board);
+            child.makeMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotionType(move));
+            nodes += count(depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Standalone run: {@code java -cp target/classes com.mychess.my_chess_backend.utils.Perft [maxDepth]}.
+     * Each position runs up to {@code maxDepth} (default 5) or its deepest known count, whichever is lower.
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        boolean failed = false;
+
+        try (ForkJoinPool pool = new ForkJoinPool()) {
+            for (Position position : POSITIONS) {
+                int depth = Math.min(maxDepth, position.maxDepth());
+                BitBoard board = BitBoard.fromFen(position.fen());
+                long expected = position.expectedNodes(depth);
+
+                long start = System.nanoTime();
+                long nodes = perft(board, depth);
+                long single = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                long parallelNodes = perftParallel(board, depth, pool);
+                long parallel = System.nanoTime() - start;
+
+                boolean ok = nodes == expected && parallelNodes == expected;
+                failed |= !ok;
+                System.out.printf(
+                    "%-10s depth %d  nodes %,13d  single %,7d ms %,12d nps  parallel %,7d ms %,12d nps  %s%n",
+                    position.name(), depth, nodes,
+                    single / 1_000_000, nodesPerSecond(nodes, single),
+                    parallel / 1_000_000, nodesPerSecond(parallelNodes, parallel),
+                    ok ? "ok" : "MISMATCH (expected " + expected + ", parallel " + parallelNodes + ")"
+                );
+            }
+        }
+
+        if (failed) System.exit(1);
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+}
@@ -0,0 +1,385 @@
+package com.mychess.my_chess_backend.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mychess.my_chess_backend.dtos.events.RoomEventDTO;
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.dtos.responses.room.PieceMovedResponseDTO;
+import com.mychess.my_chess_backend.dtos.shared.Move;
+import com.mychess.my_chess_backend.dtos.shared.MoveDetails;
+import com.mychess.my_chess_backend.dtos.shared.Piece;
+import com.mychess.my_chess_backend.dtos.shared.Position;
+import com.mychess.my_chess_backend.utils.enums.ChessPiece;
+import com.mychess.my_chess_backend.utils.enums.EventType;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Versioned binary format for {@link MoveCache}, {@link RoomEventDTO} and {@link PieceMovedResponseDTO}.
+ * Every value starts with {@link #MAGIC}, the format version and a type tag, followed by fixed-width big-endian
+ * fields: numbers at full width, UUIDs as two longs, enums as ordinals, strings as a 16-bit length and UTF-8.
+ * A MoveCache keeps its move sequence at {@link #MOVE_SEQUENCE_OFFSET} so the Redis commit script can read it.
+ * Event payloads without a binary layout (room updates) are embedded as JSON.
+ */
+public class RoomBinaryCodec {
+    public static final byte MAGIC = (byte) 0xC7;
+    public static final byte VERSION = 1;
+    public static final int MOVE_SEQUENCE_OFFSET = 3;
+
+    private static final byte TYPE_MOVE_CACHE = 1;
+    private static final byte TYPE_ROOM_EVENT = 2;
+    private static final byte TYPE_PIECE_MOVED = 3;
+
+    private static final byte PAYLOAD_NONE = 0;
+    private static final byte PAYLOAD_PIECE_MOVED = 1;
+    private static final byte PAYLOAD_STRING = 2;
+    private static final byte PAYLOAD_JSON = 3;
+
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final GameStatus[] GAME_STATUSES = GameStatus.values();
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    private static final ChessPiece[] CHESS_PIECES = ChessPiece.values();
+
+    private final ObjectMapper objectMapper;
+
+    public RoomBinaryCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length >= 3 && bytes[0] == MAGIC;
+    }
+
+    public static boolean supports(Object value) {
+        return value instanceof MoveCache || value instanceof RoomEventDTO || value instanceof PieceMovedResponseDTO;
+    }
+
+    public byte[] encode(Object value) {
+        Writer out = new Writer(256);
+        out.putByte(MAGIC).putByte(VERSION);
+
+        if (value instanceof MoveCache cache) {
+            out.putByte(TYPE_MOVE_CACHE);
+            writeMoveCache(out, cache);
+        } else if (value instanceof RoomEventDTO event) {
+            out.putByte(TYPE_ROOM_EVENT);
+            writeRoomEvent(out, event);
+        } else if (value instanceof PieceMovedResponseDTO pieceMoved) {
+            out.putByte(TYPE_PIECE_MOVED);
+            writePieceMoved(out, pieceMoved);
+        } else {
+            throw new IllegalArgumentException("No binary layout for " + value.getClass().getName());
+        }
+        return out.toByteArray();
+    }
+
+    public Object decode(byte[] bytes) {
+        if (!isBinary(bytes)) {
+            throw new IllegalArgumentException("Not a binary room value");
+        }
+        if (bytes[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary room value version " + bytes[1]);
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(bytes, 3, bytes.length - 3);
+        return switch (bytes[2]) {
+            case TYPE_MOVE_CACHE -> readMoveCache(in);
+            case TYPE_ROOM_EVENT -> readRoomEvent(in);
+            case TYPE_PIECE_MOVED -> readPieceMoved(in);
+            default -> throw new IllegalArgumentException("Unknown binary room value type " + bytes[2]);
+        };
+    }
+
+    public RoomEventDTO decodeRoomEvent(byte[] bytes) {
+        return (RoomEventDTO) decode(bytes);
+    }
+
+    // The move sequence comes first so it sits at MOVE_SEQUENCE_OFFSET
+    private static void writeMoveCache(Writer out, MoveCache cache) {
+        out.putLong(cache.getMoveSequence() != null ? cache.getMoveSequence() : 0L);
+        putString(out, cache.getFen());
+        out.putLong(cache.getCaptured());
+        putUuid(out, cache.getWhitePlayerId());
+        putUuid(out, cache.getBlackPlayerId());
+        out.putByte(cache.getGameStatus() != null ? (byte) cache.getGameStatus().ordinal() : -1);
+        putDateTime(out, cache.getLastActivity());
+        out.putByte(cache.getPendingPromotionSquare() != null ? cache.getPendingPromotionSquare().byteValue() : -1);
+        out.putByte(cache.getZobristHash() != null ? (byte) 1 : 0);
+        out.putLong(cache.getZobristHash() != null ? cache.getZobristHash() : 0L);
+
+        long[] positions = cache.getPositionHistory();
+        out.putInt(positions != null ? positions.length : -1);
+        if (positions != null) for (long position : positions) out.putLong(position);
+
+        short[] moves = cache.getMoveHistory();
+        out.putInt(moves != null ? moves.length : -1);
+        if (moves != null) for (short move : moves) out.putShort(move);
+    }
+
+    private static MoveCache readMoveCache(ByteBuffer in) {
+        MoveCache cache = new MoveCache()
+            .setMoveSequence(in.getLong())
+            .setFen(getString(in))
+            .setCaptured(in.getLong())
+            .setWhitePlayerId(getUuid(in))
+            .setBlackPlayerId(getUuid(in));
+
+        byte status = in.get();
+        cache.setGameStatus(status >= 0 ? GAME_STATUSES[status] : null);
+        cache.setLastActivity(getDateTime(in));
+        byte pending = in.get();
+        cache.setPendingPromotionSquare(pending >= 0 ? (int) pending : null);
+        boolean hasZobrist = in.get() == 1;
+        long zobrist = in.getLong();
+        cache.setZobristHash(hasZobrist ? zobrist : null);
+
+        int positionCount = in.getInt();
+        if (positionCount >= 0) {
+            long[] positions = new long[positionCount];
+            in.asLongBuffer().get(positions);
+            in.position(in.position() + positionCount * Long.BYTES);
+            cache.setPositionHistory(positions);
+        }
+
+        int moveCount = in.getInt();
+        if (moveCount >= 0) {
+            short[] moves = new short[moveCount];
+            in.asShortBuffer().get(moves);
+            in.position(in.position() + moveCount * Short.BYTES);
+            cache.setMoveHistory(moves);
+        }
+        return cache;
+    }
+
+    private void writeRoomEvent(Writer out, RoomEventDTO event) {
+        putString(out, event.getRoomCode());
+        putString(out, event.getServerId());
+        out.putByte(event.getEventType() != null ? (byte) event.getEventType().ordinal() : -1);
+        out.putLong(event.getTimestamp() != null ? event.getTimestamp() : NO_TIMESTAMP);
+
+        Object payload = event.getPayload();
+        if (payload == null) {
+            out.putByte(PAYLOAD_NONE);
+        } else if (payload instanceof PieceMovedResponseDTO pieceMoved) {
+            out.putByte(PAYLOAD_PIECE_MOVED);
+            writePieceMoved(out, pieceMoved);
+        } else if (payload instanceof String message) {
+            out.putByte(PAYLOAD_STRING);
+            putString(out, message);
+        } else {
+            out.putByte(PAYLOAD_JSON);
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(payload);
+                out.putInt(json.length).putBytes(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private RoomEventDTO readRoomEvent(ByteBuffer in) {
+        RoomEventDTO event = new RoomEventDTO();
+        event.setRoomCode(getString(in));
+        event.setServerId(getString(in));
+        byte eventType = in.get();
+        event.setEventType(eventType >= 0 ? EVENT_TYPES[eventType] : null);
+        long timestamp = in.getLong();
+        event.setTimestamp(timestamp != NO_TIMESTAMP ? timestamp : null);
+
+        switch (in.get()) {
+            case PAYLOAD_PIECE_MOVED -> event.setPayload(readPieceMoved(in));
+            case PAYLOAD_STRING -> event.setPayload(getString(in));
+            case PAYLOAD_JSON -> {
+                byte[] json = new byte[in.getInt()];
+                in.get(json);
+                try {
+                    event.setPayload(objectMapper.readValue(json, Object.class));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            default -> { }
+        }
+        return event;
+    }
+
+    private static void writePieceMoved(Writer out, PieceMovedResponseDTO pieceMoved) {
+        out.putLong(pieceMoved.getMoveSequence() != null ? pieceMoved.getMoveSequence() : -1L);
+        out.putShort(pieceMoved.getPackedMove() != null ? pieceMoved.getPackedMove() : (short) -1);
+        putString(out, pieceMoved.getFen());
+        putMove(out, pieceMoved.getMove());
+    }
+
+    private static PieceMovedResponseDTO readPieceMoved(ByteBuffer in) {
+        long moveSequence = in.getLong();
+        short packedMove = in.getShort();
+        return new PieceMovedResponseDTO()
+            .setMoveSequence(moveSequence >= 0 ? moveSequence : null)
+            .setPackedMove(packedMove >= 0 ? packedMove : null)
+            .setFen(getString(in))
+            .setMove(getMove(in));
+    }
+
+    private static void putMove(Writer out, Move move) {
+        out.putByte(move != null ? (byte) 1 : 0);
+        if (move == null) return;
+
+        putPiece(out, move.getPiece());
+        out.putByte(move.getTo() != null ? (byte) 1 : 0);
+        if (move.getTo() != null) out.putByte(move.getTo().getRow()).putByte(move.getTo().getCol());
+        out.putLong(move.getExpectedMoveSequence() != null ? move.getExpectedMoveSequence() : -1L);
+
+        MoveDetails details = move.getMoveDetails();
+        out.putByte(details != null ? (byte) 1 : 0);
+        if (details == null) return;
+
+        out.putByte(details.isValid() ? (byte) 1 : 0);
+        putPiece(out, details.getTargetPiece());
+        putPiece(out, details.getPromotedPiece());
+        putBoolean(out, details.getPromotion());
+        out.putByte(details.getPromotionType() != null ? (byte) details.getPromotionType().ordinal() : -1);
+        putString(out, details.getCastling());
+        putString(out, details.getSituation());
+        putBoolean(out, details.getEnPassant());
+    }
+
+    private static Move getMove(ByteBuffer in) {
+        if (in.get() == 0) return null;
+
+        Move move = new Move().setPiece(getPiece(in));
+        if (in.get() == 1) move.setTo(new Position(in.get(), in.get()));
+        long expectedMoveSequence = in.getLong();
+        move.setExpectedMoveSequence(expectedMoveSequence >= 0 ? expectedMoveSequence : null);
+        if (in.get() == 0) return move;
+
+        MoveDetails details = new MoveDetails()
+            .setValid(in.get() == 1)
+            .setTargetPiece(getPiece(in))
+            .setPromotedPiece(getPiece(in))
+            .setPromotion(getBoolean(in));
+        byte promotionType = in.get();
+        details.setPromotionType(promotionType >= 0 ? CHESS_PIECES[promotionType] : null)
+            .setCastling(getString(in))
+            .setSituation(getString(in))
+            .setEnPassant(getBoolean(in));
+        return move.setMoveDetails(details);
+    }
+
+    private static void putPiece(Writer out, Piece piece) {
+        out.putByte(piece != null ? (byte) 1 : 0);
+        if (piece == null) return;
+
+        putString(out, piece.getId());
+        out.putByte(piece.getCol()).putByte(piece.getRow());
+        putString(out, piece.getColor());
+        putString(out, piece.getType());
+        putBoolean(out, piece.getEnPassantAvailable());
+        out.putByte(piece.isHasMoved() ? (byte) 1 : 0);
+    }
+
+    private static Piece getPiece(ByteBuffer in) {
+        if (in.get() == 0) return null;
+
+        return new Piece()
+            .setId(getString(in))
+            .setCol(in.get())
+            .setRow(in.get())
+            .setColor(getString(in))
+            .setType(getString(in))
+            .setEnPassantAvailable(getBoolean(in))
+            .setHasMoved(in.get() == 1);
+    }
+
+    // Nullable booleans: 0 null, 1 false, 2 true
+    private static void putBoolean(Writer out, Boolean value) {
+        out.putByte(value == null ? (byte) 0 : value ? (byte) 2 : (byte) 1);
+    }
+
+    private static Boolean getBoolean(ByteBuffer in) {
+        byte value = in.get();
+        return value == 0 ? null : value == 2;
+    }
+
+    private static void putString(Writer out, String value) {
+        if (value == null) {
+            out.putShort((short) NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length).putBytes(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_LENGTH) return null;
+
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void putUuid(Writer out, UUID uuid) {
+        out.putByte(uuid != null ? (byte) 1 : 0);
+        out.putLong(uuid != null ? uuid.getMostSignificantBits() : 0L);
+        out.putLong(uuid != null ? uuid.getLeastSignificantBits() : 0L);
+    }
+
+    private static UUID getUuid(ByteBuffer in) {
+        boolean present = in.get() == 1;
+        long most = in.getLong();
+        long least = in.getLong();
+        return present ? new UUID(most, least) : null;
+    }
+
+    private static void putDateTime(Writer out, LocalDateTime dateTime) {
+        out.putByte(dateTime != null ? (byte) 1 : 0);
+        out.putLong(dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : 0L);
+        out.putInt(dateTime != null ? dateTime.getNano() : 0);
+    }
+
+    private static LocalDateTime getDateTime(ByteBuffer in) {
+        boolean present = in.get() == 1;
+        long seconds = in.getLong();
+        int nanos = in.getInt();
+        return present ? LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * Growable big-endian output buffer.
+     */
+    private static final class Writer {
+        private ByteBuffer buffer;
+
+        Writer(int capacity) {
+            buffer = ByteBuffer.allocate(capacity);
+        }
+
+        Writer putByte(byte value) { ensure(1).put(value); return this; }
+        Writer putShort(short value) { ensure(2).putShort(value); return this; }
+        Writer putInt(int value) { ensure(4).putInt(value); return this; }
+        Writer putLong(long value) { ensure(8).putLong(value); return this; }
+        Writer putBytes(byte[] value) { ensure(value.length).put(value); return this; }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            return buffer;
+        }
+    }
+}
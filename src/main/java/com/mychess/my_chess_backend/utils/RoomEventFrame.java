@@ -0,0 +1,77 @@
+package com.mychess.my_chess_backend.utils;
+
+import com.mychess.my_chess_backend.utils.enums.EventType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pub/Sub framing for room events: a small routing header followed by the STOMP body exactly as local subscribers
+ * receive it, so a receiving instance can route and forward the body without decoding it.
+ * The header is {@link #MAGIC}, the version, the event type ordinal, a flags byte, the move sequence (-1 when the
+ * event has none), then the room code and the origin server id as a 16-bit length and UTF-8.
+ */
+public class RoomEventFrame {
+    public static final byte MAGIC = (byte) 0xC8;
+    public static final byte VERSION = 1;
+
+    public static final long NO_SEQUENCE = -1L;
+
+    private static final byte FLAG_TEXT = 1;
+    private static final int FIXED_HEADER_BYTES = 12;
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    /**
+     * @param text whether the body is plain UTF-8 text rather than JSON
+     * @param bodyOffset where the body starts in the frame
+     */
+    public record Header(String roomCode, String origin, EventType eventType, long moveSequence, boolean text, int bodyOffset) {}
+
+    public static boolean isFrame(byte[] bytes) {
+        return bytes != null && bytes.length >= FIXED_HEADER_BYTES && bytes[0] == MAGIC;
+    }
+
+    public static byte[] encode(String roomCode, String origin, EventType eventType, long moveSequence, boolean text, byte[] body) {
+        byte[] code = roomCode.getBytes(StandardCharsets.UTF_8);
+        byte[] server = origin.getBytes(StandardCharsets.UTF_8);
+
+        return ByteBuffer.allocate(FIXED_HEADER_BYTES + 4 + code.length + server.length + body.length)
+            .put(MAGIC)
+            .put(VERSION)
+            .put((byte) eventType.ordinal())
+            .put(text ? FLAG_TEXT : 0)
+            .putLong(moveSequence)
+            .putShort((short) code.length).put(code)
+            .putShort((short) server.length).put(server)
+            .put(body)
+            .array();
+    }
+
+    public static Header readHeader(byte[] frame) {
+        ByteBuffer in = ByteBuffer.wrap(frame);
+        in.position(1);
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported room event frame version " + version);
+        }
+
+        EventType eventType = EVENT_TYPES[in.get()];
+        boolean text = (in.get() & FLAG_TEXT) != 0;
+        long moveSequence = in.getLong();
+        String roomCode = readString(in);
+        String origin = readString(in);
+        return new Header(roomCode, origin, eventType, moveSequence, text, in.position());
+    }
+
+    public static byte[] body(byte[] frame, Header header) {
+        return Arrays.copyOfRange(frame, header.bodyOffset(), frame.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
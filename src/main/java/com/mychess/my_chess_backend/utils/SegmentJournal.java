@@ -0,0 +1,285 @@
+package com.mychess.my_chess_backend.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of byte records in fixed-size, memory-mapped segment files.
+ * <p>
+ * A record is {@code [int length][int crc32][payload]}; a zero length marks the end of a segment's data and a
+ * checksum mismatch a torn write, so reopening a directory recovers every record written before a crash.
+ * Appends only write to the mapping, {@link #flush()} forces it to disk, so several appends share one fsync.
+ * Records are consumed with {@link #read} and dropped with {@link #commit}; segments are deleted once fully consumed.
+ * Nothing is persisted about consumption, so records read but not committed before a crash are read again.
+ * A directory belongs to one journal at a time: opening it takes a lock that another process, or another journal
+ * in this one, can't get until it is closed.
+ */
+public class SegmentJournal implements Closeable {
+    private static final int HEADER_BYTES = 8;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".seg";
+    private static final String LOCK_FILE = "journal.lock";
+
+    public record Cursor(long segmentId, int position) {}
+
+    public record Batch(List<byte[]> records, Cursor end) {}
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private final int recoveredRecords;
+    private final FileChannel lockChannel;
+
+    private Segment writeSegment;
+    private Cursor readCursor;
+    private long pendingRecords;
+    private volatile boolean dirty;
+
+    public SegmentJournal(Path directory, int segmentBytes, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        this.lockChannel = lock(directory);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                .filter(path -> path.getFileName().toString().startsWith(PREFIX) && path.getFileName().toString().endsWith(SUFFIX))
+                .sorted()
+                .toList();
+        }
+
+        int recovered = 0;
+        for (Path file : files) {
+            Segment segment = Segment.open(file, segmentIdOf(file), 0);
+            recovered += segment.recover(crc);
+            segments.add(segment);
+        }
+        this.recoveredRecords = recovered;
+        this.pendingRecords = recovered;
+
+        // Recovered segments are only read; writing always continues in a fresh one
+        long nextId = segments.isEmpty() ? 0 : segments.getLast().id + 1;
+        writeSegment = Segment.open(directory.resolve(fileName(nextId)), nextId, segmentBytes);
+        segments.add(writeSegment);
+        readCursor = new Cursor(segments.getFirst().id, 0);
+    }
+
+    // Held until close; the OS releases it if the process dies
+    private static FileChannel lock(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Journal directory " + directory + " is in use by another journal");
+        }
+        return channel;
+    }
+
+    public int recoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /**
+     * Appends {@code record}. Throws {@link IllegalStateException} when the journal already holds its maximum
+     * number of segments.
+     */
+    public synchronized void append(byte[] record) throws IOException {
+        int size = HEADER_BYTES + record.length;
+        if (size > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes exceeds the segment size");
+        }
+        if (writeSegment.limit + size > segmentBytes) { roll(); }
+
+        crc.reset();
+        crc.update(record);
+        MappedByteBuffer buffer = writeSegment.buffer;
+        int position = writeSegment.limit;
+        buffer.put(position + HEADER_BYTES, record);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // The length goes last: until it is written the record reads as the end of the segment
+        buffer.putInt(position, record.length);
+        writeSegment.limit = position + size;
+        pendingRecords++;
+        dirty = true;
+    }
+
+    /**
+     * Up to {@code maxRecords} records from the oldest uncommitted one on, without consuming them.
+     */
+    public synchronized Batch read(int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        Segment segment = segment(readCursor.segmentId());
+        int position = readCursor.position();
+
+        while (records.size() < maxRecords) {
+            if (position < segment.limit) {
+                int length = segment.buffer.getInt(position);
+                byte[] record = new byte[length];
+                segment.buffer.get(position + HEADER_BYTES, record);
+                records.add(record);
+                position += HEADER_BYTES + length;
+            } else if (segment != writeSegment) {
+                segment = next(segment);
+                position = 0;
+            } else {
+                break;
+            }
+        }
+        return new Batch(records, new Cursor(segment.id, position));
+    }
+
+    /**
+     * Marks the records of {@code batch} as consumed and deletes the segments before its end.
+     */
+    public synchronized void commit(Batch batch) throws IOException {
+        Cursor end = batch.end();
+        readCursor = end;
+        pendingRecords -= batch.records().size();
+        while (segments.getFirst().id < end.segmentId()) {
+            segments.removeFirst().delete();
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return readCursor.segmentId() == writeSegment.id && readCursor.position() >= writeSegment.limit;
+    }
+
+    // Appended or recovered records not committed yet
+    public synchronized long pendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Forces appended records to disk if any were written since the last flush.
+     */
+    public void flush() {
+        if (!dirty) { return; }
+        dirty = false;
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            buffer = writeSegment.buffer;
+        }
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        // Closing the channel releases the lock
+        lockChannel.close();
+    }
+
+    private void roll() throws IOException {
+        if (segments.size() >= maxSegments) {
+            throw new IllegalStateException("Journal is full (" + maxSegments + " segments)");
+        }
+        writeSegment.buffer.force();
+        long id = writeSegment.id + 1;
+        writeSegment = Segment.open(directory.resolve(fileName(id)), id, segmentBytes);
+        segments.add(writeSegment);
+    }
+
+    private Segment segment(long id) {
+        for (Segment segment : segments) {
+            if (segment.id == id) { return segment; }
+        }
+        throw new IllegalStateException("Journal segment " + id + " is gone");
+    }
+
+    private Segment next(Segment current) {
+        for (Segment segment : segments) {
+            if (segment.id > current.id) { return segment; }
+        }
+        return writeSegment;
+    }
+
+    private static String fileName(long id) {
+        return PREFIX + String.format("%020d", id) + SUFFIX;
+    }
+
+    private static long segmentIdOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static class Segment {
+        final long id;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int limit;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        // size 0 maps an existing file as it is
+        static Segment open(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            );
+            long length = size > 0 ? size : channel.size();
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+        }
+
+        // Finds the end of the intact records and returns how many there are
+        int recover(CRC32 crc) {
+            int position = 0;
+            int records = 0;
+            while (position + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) { break; }
+
+                byte[] record = new byte[length];
+                buffer.get(position + HEADER_BYTES, record);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) { break; }
+
+                position += HEADER_BYTES + length;
+                records++;
+            }
+            limit = position;
+            return records;
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
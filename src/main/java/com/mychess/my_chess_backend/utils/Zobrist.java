@@ -0,0 +1,64 @@
+package com.mychess.my_chess_backend.utils;
+
+/**
+ * Zobrist keys for 64-bit position hashing.
+ * The keys come from a fixed SplitMix64 sequence, so hashes stored in Redis or Postgres stay valid across restarts.
+ */
+public class Zobrist {
+    private static final long SEED = 0x4D79436865737321L;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long state = SEED;
+        for (int piece = 0; piece < 12; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                state += 0x9E3779B97F4A7C15L;
+                PIECE_SQUARE[piece][sq] = mix(state);
+            }
+        }
+        for (int rights = 1; rights < 16; rights++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING[rights] = mix(state);
+        }
+        for (int file = 0; file < 8; file++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[file] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    public static long piece(int piece, int square) { return PIECE_SQUARE[piece][square]; }
+    public static long castling(int rights) { return CASTLING[rights]; }
+    public static long sideToMove() { return BLACK_TO_MOVE; }
+
+    public static long enPassant(int square) {
+        return square == BitBoard.NO_SQUARE ? 0L : EN_PASSANT_FILE[BitBoard.colOf(square)];
+    }
+
+    /**
+     * Hashes a position from scratch. {@link BitBoard} keeps the same value up to date incrementally.
+     */
+    public static long hash(BitBoard board) {
+        long hash = 0L;
+        for (int piece = 0; piece < 12; piece++) {
+            long bits = board.getPieces(piece);
+            while (bits != 0) {
+                hash ^= PIECE_SQUARE[piece][Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        if (board.getSideToMove() == BitBoard.BLACK) hash ^= BLACK_TO_MOVE;
+        return hash ^ CASTLING[board.getCastlingRights()] ^ enPassant(board.getEnPassantSquare());
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
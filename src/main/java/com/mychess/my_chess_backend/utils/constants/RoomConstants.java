@@ -3,6 +3,5 @@ package com.mychess.my_chess_backend.utils.constants;
 public class RoomConstants {
     public static final int ROOM_CODE_LENGTH = 6;
     public static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyz0123456789";
-    public static final String DEFAULT_CAPTURED_PIECES = "r0n0b0q0p0k0/R0N0B0Q0P0K0";
     public static final String DEFAULT_CHESSBOARD_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
 }
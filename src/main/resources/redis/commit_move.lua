@@ -0,0 +1,32 @@
+-- Commits a move only if the stored state is still at the expected move sequence.
+-- KEYS[1] room state key, KEYS[2] set of rooms waiting for the database sync
+-- ARGV[1] expected move sequence, ARGV[2] new state, ARGV[3] TTL in seconds,
+-- ARGV[4] room code, ARGV[5] event channel, ARGV[6] event payload (empty for none),
+-- ARGV[7] '1' if the caller checked the expected sequence against the state rebuilt from the database,
+-- so it may recreate a missing key
+-- Returns nil when committed, an empty string when the key is missing and may not be recreated,
+-- otherwise the current state.
+local current = redis.call('GET', KEYS[1])
+if current then
+  local sequence
+  if string.byte(current, 1) == 0xC7 then
+    -- RoomBinaryCodec: magic, version, type, then the sequence as a big-endian long
+    sequence = struct.unpack('>i8', current, 4)
+  else
+    sequence = cjson.decode(current)['moveSequence']
+  end
+  if type(sequence) ~= 'number' or sequence < 0 then sequence = 0 end
+  if sequence ~= tonumber(ARGV[1]) then
+    return current
+  end
+elseif ARGV[7] ~= '1' then
+  -- Expired or evicted: the expected sequence can't be checked here
+  return ''
+end
+
+redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+redis.call('SADD', KEYS[2], ARGV[4])
+if ARGV[6] ~= '' then
+  redis.call('PUBLISH', ARGV[5], ARGV[6])
+end
+return false
@@ -0,0 +1,31 @@
+-- Hash storage variant of commit_move.lua: only the given fields are written.
+-- KEYS[1] room state hash, KEYS[2] set of rooms waiting for the database sync
+-- ARGV[1] expected move sequence, ARGV[2] TTL in seconds, ARGV[3] room code, ARGV[4] event channel,
+-- ARGV[5] event payload (empty for none), ARGV[6] '1' if the fields below are the complete state and the
+-- caller checked the expected sequence against the state rebuilt from the database, so it may recreate a
+-- missing hash, ARGV[7] number of fields to delete, then the field names to delete, then field/value pairs to set
+-- Returns nil when committed, the current hash on a sequence mismatch, or an empty array when the
+-- hash is gone and may not be recreated.
+local sequence = redis.call('HGET', KEYS[1], 'seq')
+if sequence then
+  if tonumber(sequence) ~= tonumber(ARGV[1]) then
+    return redis.call('HGETALL', KEYS[1])
+  end
+elseif ARGV[6] ~= '1' then
+  return {}
+end
+
+local deletes = tonumber(ARGV[7])
+if deletes > 0 then
+  redis.call('HDEL', KEYS[1], unpack(ARGV, 8, 7 + deletes))
+end
+if 8 + deletes <= #ARGV then
+  redis.call('HSET', KEYS[1], unpack(ARGV, 8 + deletes, #ARGV))
+end
+
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+redis.call('SADD', KEYS[2], ARGV[3])
+if ARGV[5] ~= '' then
+  redis.call('PUBLISH', ARGV[4], ARGV[5])
+end
+return false
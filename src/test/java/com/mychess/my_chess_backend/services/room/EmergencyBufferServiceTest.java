@@ -0,0 +1,98 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.utils.RoomBinaryCodec;
+import com.mychess.my_chess_backend.utils.SegmentJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmergencyBufferServiceTest {
+    private final RoomBinaryCodec codec = new RoomBinaryCodec(new ObjectMapper());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void drainsBufferedStatesInOrder() throws IOException {
+        EmergencyBufferService buffer = new EmergencyBufferService(codec, directory.toString(), 1, 4);
+        try {
+            buffer.bufferMove("AAAAAA", state(1));
+            buffer.bufferMove("BBBBBB", state(2));
+
+            List<EmergencyBufferService.QueueItem> drained = new ArrayList<>();
+            assertEquals(2, buffer.drain(10, drained::addAll));
+
+            assertEquals(List.of("AAAAAA", "BBBBBB"), drained.stream().map(EmergencyBufferService.QueueItem::code).toList());
+            assertEquals(state(2), drained.get(1).cache());
+            assertTrue(buffer.isEmpty());
+        } finally {
+            buffer.close();
+        }
+    }
+
+    @Test
+    void keepsStatesWhenTheSinkFails() throws IOException {
+        EmergencyBufferService buffer = new EmergencyBufferService(codec, directory.toString(), 1, 4);
+        try {
+            buffer.bufferMove("AAAAAA", state(1));
+
+            assertThrows(IllegalStateException.class, () -> buffer.drain(10, items -> { throw new IllegalStateException("database down"); }));
+            assertEquals(1, buffer.depth());
+            assertEquals(1, buffer.drain(10, items -> { }));
+        } finally {
+            buffer.close();
+        }
+    }
+
+    @Test
+    void deadLettersRecordsItCannotDecode() throws IOException {
+        // A record from a codec version this one doesn't know, ahead of a good one
+        byte[] unreadable = codec.encode(state(1));
+        unreadable[1] = RoomBinaryCodec.VERSION + 1;
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024 * 1024, 4)) {
+            journal.append(record("AAAAAA", unreadable));
+            journal.append(record("BBBBBB", codec.encode(state(2))));
+            journal.flush();
+        }
+
+        EmergencyBufferService buffer = new EmergencyBufferService(codec, directory.toString(), 1, 4);
+        try {
+            List<EmergencyBufferService.QueueItem> drained = new ArrayList<>();
+            assertEquals(1, buffer.drain(10, drained::addAll));
+
+            assertEquals("BBBBBB", drained.get(0).code());
+            assertTrue(buffer.isEmpty());
+            try (Stream<Path> deadLetters = Files.list(directory.resolve("dead-letter"))) {
+                List<Path> files = deadLetters.toList();
+                assertEquals(1, files.size());
+                assertArrayEquals(record("AAAAAA", unreadable), Files.readAllBytes(files.get(0)));
+            }
+        } finally {
+            buffer.close();
+        }
+    }
+
+    private static MoveCache state(long sequence) {
+        return new MoveCache().setFen("8/8/8/8/8/8/8/4K2k w - - 0 1").setMoveSequence(sequence);
+    }
+
+    // Same layout as EmergencyBufferService.bufferMove
+    private static byte[] record(String code, byte[] state) {
+        return ByteBuffer.allocate(2 + code.length() + state.length)
+            .putShort((short) code.length())
+            .put(code.getBytes())
+            .put(state)
+            .array();
+    }
+}
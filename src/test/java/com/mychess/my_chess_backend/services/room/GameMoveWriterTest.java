@@ -0,0 +1,134 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.models.GameMove;
+import com.mychess.my_chess_backend.repositories.GameMoveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMoveWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesRecordedMoves() throws Exception {
+        FakeRepository repository = new FakeRepository();
+        GameMoveWriter writer = start(repository, new SimpleMeterRegistry());
+        try {
+            writer.record(move("AAAAAA", 1));
+            writer.record(move("AAAAAA", 2));
+
+            awaitRows(repository, 2);
+            assertEquals(List.of(move("AAAAAA", 1), move("AAAAAA", 2)), repository.rows());
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void skipsRowsTheDatabaseRejects() throws Exception {
+        FakeRepository repository = new FakeRepository();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        repository.down = true;
+        GameMoveWriter writer = start(repository, meterRegistry);
+        try {
+            writer.record(move("AAAAAA", 1));
+            writer.record(move("TOOLONGCODE", 2));
+            writer.record(move("AAAAAA", 3));
+            repository.down = false;
+
+            awaitRows(repository, 2);
+            assertEquals(List.of(move("AAAAAA", 1), move("AAAAAA", 3)), repository.rows());
+            assertEquals(1.0, meterRegistry.counter("game_moves.rejected").count());
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void keepsMovesJournaledWhileTheDatabaseIsDown() throws Exception {
+        FakeRepository down = new FakeRepository();
+        down.down = true;
+        GameMoveWriter writer = start(down, new SimpleMeterRegistry());
+        writer.record(move("AAAAAA", 1));
+        writer.record(move("BBBBBB", 1));
+        Thread.sleep(200);
+        writer.stop();
+        assertTrue(down.rows().isEmpty());
+
+        // The next start writes what the last one couldn't
+        FakeRepository up = new FakeRepository();
+        GameMoveWriter restarted = start(up, new SimpleMeterRegistry());
+        try {
+            awaitRows(up, 2);
+            assertEquals(List.of(move("AAAAAA", 1), move("BBBBBB", 1)), up.rows());
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    private GameMoveWriter start(FakeRepository repository, SimpleMeterRegistry meterRegistry) throws IOException {
+        GameMoveWriter writer = new GameMoveWriter(repository, meterRegistry, directory.toString(), 1, 4);
+        writer.start();
+        return writer;
+    }
+
+    private static GameMove move(String code, long sequence) {
+        return new GameMove(code, sequence, (short) (sequence * 65), false, LocalDateTime.of(2026, 5, 1, 12, 30, 15, 123_456_000));
+    }
+
+    private static void awaitRows(FakeRepository repository, int rows) throws InterruptedException {
+        await(() -> repository.rows().size() >= rows);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    // Rejects room codes longer than the column, like game_moves does
+    static class FakeRepository extends GameMoveRepository {
+        private final List<GameMove> rows = new ArrayList<>();
+        volatile boolean down;
+
+        FakeRepository() {
+            super(null);
+        }
+
+        @Override
+        public void createTableIfMissing() {
+        }
+
+        @Override
+        public void createPartitionIfMissing(YearMonth month) {
+        }
+
+        @Override
+        public synchronized void insertAll(List<GameMove> moves) {
+            if (down) { throw new DataAccessResourceFailureException("database down"); }
+            for (GameMove move : moves) {
+                if (move.roomCode().length() > 6) { throw new DataIntegrityViolationException("value too long"); }
+            }
+            rows.addAll(moves);
+        }
+
+        synchronized List<GameMove> rows() {
+            return new ArrayList<>(rows);
+        }
+    }
+}
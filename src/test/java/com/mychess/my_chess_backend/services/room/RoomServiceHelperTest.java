@@ -0,0 +1,193 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.dtos.shared.Move;
+import com.mychess.my_chess_backend.dtos.shared.MoveDetails;
+import com.mychess.my_chess_backend.dtos.shared.Piece;
+import com.mychess.my_chess_backend.dtos.shared.Position;
+import com.mychess.my_chess_backend.exceptions.room.MoveNotAllowed;
+import com.mychess.my_chess_backend.exceptions.room.RoomErrorMessage;
+import com.mychess.my_chess_backend.utils.BitBoard;
+import com.mychess.my_chess_backend.utils.PackedMove;
+import com.mychess.my_chess_backend.utils.enums.ChessPiece;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+import org.junit.jupiter.api.Test;
+
+import static com.mychess.my_chess_backend.utils.BitBoard.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomServiceHelperTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void resolvesALegalMove() {
+        int move = RoomServiceHelper.resolveLegalMove(BitBoard.fromFen(START), move("w-p-6-4", 4, 4));
+
+        assertEquals(square(1, 4), PackedMove.from(move));
+        assertEquals(square(3, 4), PackedMove.to(move));
+        assertEquals(NO_PIECE, PackedMove.promotionType(move));
+    }
+
+    @Test
+    void readsBlackTargetsFromBlacksSideOfTheBoard() {
+        BitBoard board = BitBoard.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+
+        int move = RoomServiceHelper.resolveLegalMove(board, move("b-p-1-3", 4, 3));
+
+        assertEquals(square(6, 3), PackedMove.from(move));
+        assertEquals(square(4, 3), PackedMove.to(move));
+    }
+
+    @Test
+    void rejectsMovesThePieceCannotMake() {
+        assertIllegal(START, move("w-p-6-4", 3, 4));
+        assertIllegal(START, move("w-b-7-2", 5, 4));
+    }
+
+    @Test
+    void rejectsMovingTheOpponentsPieces() {
+        assertIllegal(START, move("b-p-1-4", 4, 4));
+    }
+
+    @Test
+    void rejectsMovesThatLeaveTheKingInCheck() {
+        // The knight on e2 is pinned by the rook on e8
+        assertIllegal("4r1k1/8/8/8/8/8/4N3/4K3 w - - 0 1", move("w-n-6-4", 5, 2));
+        // The king may not step onto a square the rook attacks
+        assertIllegal("4r1k1/8/8/8/8/8/8/3K4 w - - 0 1", move("w-k-7-3", 7, 4));
+    }
+
+    @Test
+    void rejectsCastlingWithoutTheRight() {
+        assertIllegal("r3k2r/8/8/8/8/8/8/R3K2R w Qkq - 0 1", move("w-k-7-4", 7, 6));
+        assertIllegal("r3k2r/8/8/8/8/8/5r2/R3K2R w KQkq - 0 1", move("w-k-7-4", 7, 6));
+    }
+
+    @Test
+    void rejectsMalformedPieceIds() {
+        assertIllegal(START, move("pawn", 4, 4));
+        assertIllegal(START, move("w-p-6-9", 4, 4));
+        assertIllegal(START, move("", 4, 4));
+        assertIllegal(START, move(null, 4, 4));
+        assertIllegal(START, new Move().setPiece(new Piece().setId("w-p-6-4")).setMoveDetails(new MoveDetails()));
+    }
+
+    @Test
+    void describesEnPassantFromThePosition() {
+        BitBoard board = BitBoard.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        Move move = move("w-p-3-4", 2, 3);
+
+        int legalMove = RoomServiceHelper.resolveLegalMove(board, move);
+        RoomServiceHelper.describeMove(board, legalMove, move.getMoveDetails());
+
+        assertTrue(move.getMoveDetails().getEnPassant());
+        assertFalse(move.getMoveDetails().getPromotion());
+    }
+
+    @Test
+    void promotesToTheChosenPieceOrAQueen() {
+        String fen = "8/4P3/8/8/8/8/k7/4K3 w - - 0 1";
+
+        int queen = RoomServiceHelper.resolveLegalMove(BitBoard.fromFen(fen), move("w-p-1-4", 0, 4));
+        assertEquals(QUEEN, PackedMove.promotionType(queen));
+
+        Move knightMove = move("w-p-1-4", 0, 4);
+        knightMove.getMoveDetails().setPromotionType(ChessPiece.KNIGHT);
+        int knight = RoomServiceHelper.resolveLegalMove(BitBoard.fromFen(fen), knightMove);
+        assertEquals(KNIGHT, PackedMove.promotionType(knight));
+    }
+
+    @Test
+    void legacyTwoStepPromotionSwapsTheQueen() {
+        BitBoard board = BitBoard.fromFen("8/4P3/8/8/8/8/k7/4K3 w - - 0 1");
+        MoveCache cache = new MoveCache();
+
+        // First message: the bare pawn move, auto-promoted to a queen
+        int legalMove = RoomServiceHelper.resolveLegalMove(board, move("w-p-1-4", 0, 4));
+        board.makeMove(PackedMove.from(legalMove), PackedMove.to(legalMove), PackedMove.promotionType(legalMove));
+        short[] history = PackedMove.append(null, legalMove);
+        cache.setPendingPromotionSquare(square(7, 4));
+        assertEquals("4Q3/8/8/8/8/8/k7/4K3 b - - 0 1", board.toFen());
+
+        // Second message: the piece the player picked, sent once the turn has passed
+        Move choice = promotionChoice("rook");
+        assertTrue(RoomServiceHelper.isPromotionChoice(choice, cache));
+        RoomServiceHelper.choosePromotedPiece(board, choice, cache.getPendingPromotionSquare());
+        history = RoomServiceHelper.withChosenPromotion(history, RoomServiceHelper.getPromotionType(choice.getMoveDetails()));
+
+        assertEquals("4R3/8/8/8/8/8/k7/4K3 b - - 0 1", board.toFen());
+        assertEquals(ROOK, PackedMove.promotionType(history[0]));
+        assertEquals(square(7, 4), PackedMove.to(history[0]));
+    }
+
+    @Test
+    void pendingPromotionIsJudgedOnceThePieceIsChosen() {
+        // The auto-queen on b8 would stalemate the king in the corner; a knight leaves it b1 and b2
+        String fen = "8/1P6/8/8/8/8/p7/k6K w - - 0 1";
+
+        BitBoard board = promoteWithPendingChoice(fen);
+        MoveCache cache = new MoveCache().setPendingPromotionSquare(square(7, 1));
+        assertEquals(GameStatus.IN_PROGRESS, RoomServiceHelper.recordOutcome(cache, board));
+
+        RoomServiceHelper.choosePromotedPiece(board, promotionChoice("knight"), cache.getPendingPromotionSquare());
+        cache.setPendingPromotionSquare(null);
+        assertEquals(GameStatus.IN_PROGRESS, RoomServiceHelper.recordOutcome(cache, board));
+
+        BitBoard queened = promoteWithPendingChoice(fen);
+        MoveCache queenCache = new MoveCache().setPendingPromotionSquare(square(7, 1));
+        assertEquals(GameStatus.IN_PROGRESS, RoomServiceHelper.recordOutcome(queenCache, queened));
+
+        RoomServiceHelper.choosePromotedPiece(queened, promotionChoice("queen"), queenCache.getPendingPromotionSquare());
+        queenCache.setPendingPromotionSquare(null);
+        assertEquals(GameStatus.DRAW, RoomServiceHelper.recordOutcome(queenCache, queened));
+    }
+
+    @Test
+    void promotionChoiceNeedsAPendingQueen() {
+        Move choice = promotionChoice("knight");
+
+        assertFalse(RoomServiceHelper.isPromotionChoice(choice, new MoveCache()));
+
+        MoveNotAllowed noQueen = assertThrows(
+            MoveNotAllowed.class,
+            () -> RoomServiceHelper.choosePromotedPiece(BitBoard.fromFen("4R3/8/8/8/8/8/k7/4K3 b - - 0 1"), choice, square(7, 4))
+        );
+        assertEquals(RoomErrorMessage.NO_PENDING_PROMOTION.getValue(), noQueen.getMessage());
+
+        assertThrows(
+            MoveNotAllowed.class,
+            () -> RoomServiceHelper.choosePromotedPiece(BitBoard.fromFen("4Q3/8/8/8/8/8/k7/4K3 b - - 0 1"), promotionChoice("king"), square(7, 4))
+        );
+        assertThrows(
+            MoveNotAllowed.class,
+            () -> RoomServiceHelper.choosePromotedPiece(BitBoard.fromFen("4Q3/8/8/8/8/8/k7/4K3 b - - 0 1"), promotionChoice("pawn"), square(7, 4))
+        );
+    }
+
+    private static BitBoard promoteWithPendingChoice(String fen) {
+        BitBoard board = BitBoard.fromFen(fen);
+        int legalMove = RoomServiceHelper.resolveLegalMove(board, move("w-p-1-1", 0, 1));
+        board.makeMove(PackedMove.from(legalMove), PackedMove.to(legalMove), PackedMove.promotionType(legalMove));
+        return board;
+    }
+
+    private static void assertIllegal(String fen, Move move) {
+        MoveNotAllowed e = assertThrows(MoveNotAllowed.class, () -> RoomServiceHelper.resolveLegalMove(BitBoard.fromFen(fen), move));
+        assertEquals(RoomErrorMessage.ILLEGAL_MOVE.getValue(), e.getMessage());
+    }
+
+    // Target row as the moving side's client sends it, from its own side of the board
+    private static Move move(String pieceId, int targetRow, int targetCol) {
+        return new Move()
+            .setPiece(new Piece().setId(pieceId))
+            .setTo(new Position((byte) targetRow, (byte) targetCol))
+            .setMoveDetails(new MoveDetails());
+    }
+
+    private static Move promotionChoice(String type) {
+        return new Move()
+            .setPiece(new Piece().setId("w-p-1-4"))
+            .setTo(new Position((byte) 0, (byte) 4))
+            .setMoveDetails(new MoveDetails().setPromotion(true).setPromotedPiece(new Piece().setType(type)));
+    }
+}
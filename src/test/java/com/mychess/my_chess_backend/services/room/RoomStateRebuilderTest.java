@@ -0,0 +1,112 @@
+package com.mychess.my_chess_backend.services.room;
+
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.models.GameMove;
+import com.mychess.my_chess_backend.utils.CapturedPieceUtil;
+import com.mychess.my_chess_backend.utils.PackedMove;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.mychess.my_chess_backend.utils.BitBoard.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomStateRebuilderTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final LocalDateTime PLAYED_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Test
+    void replaysTheLoggedMovesInOrder() {
+        MoveCache cache = RoomStateRebuilder.replay(snapshot(START, 0), List.of(
+            logged(1, square(1, 4), square(3, 4)),
+            logged(2, square(6, 3), square(4, 3)),
+            logged(3, square(3, 4), square(4, 3))
+        ));
+
+        assertEquals("rnbqkbnr/ppp1pppp/8/3P4/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2", cache.getFen());
+        assertEquals(3L, cache.getMoveSequence());
+        assertEquals(3, cache.getMoveHistory().length);
+        assertEquals(1, CapturedPieceUtil.count(cache.getCaptured(), piece(BLACK, PAWN)));
+        assertEquals(GameStatus.IN_PROGRESS, cache.getGameStatus());
+    }
+
+    @Test
+    void skipsRowsTheSnapshotAlreadyCovers() {
+        MoveCache cache = RoomStateRebuilder.replay(snapshot("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", 1), List.of(
+            logged(1, square(1, 4), square(3, 4)),
+            // A duplicate of an applied sequence, as a retried insert would leave it
+            logged(1, square(1, 3), square(3, 3)),
+            logged(2, square(6, 4), square(4, 4))
+        ));
+
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2", cache.getFen());
+        assertEquals(2L, cache.getMoveSequence());
+    }
+
+    @Test
+    void stopsAtTheFirstGap() {
+        MoveCache cache = RoomStateRebuilder.replay(snapshot(START, 0), List.of(
+            logged(1, square(1, 4), square(3, 4)),
+            logged(3, square(1, 3), square(3, 3))
+        ));
+
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", cache.getFen());
+        assertEquals(1L, cache.getMoveSequence());
+
+        MoveCache untouched = RoomStateRebuilder.replay(snapshot(START, 0), List.of(logged(2, square(1, 4), square(3, 4))));
+        assertEquals(START, untouched.getFen());
+        assertEquals(0L, untouched.getMoveSequence());
+    }
+
+    @Test
+    void appliesTheChosenPromotionPiece() {
+        MoveCache cache = RoomStateRebuilder.replay(snapshot("8/4P3/8/8/8/8/k7/4K3 w - - 0 1", 10), List.of(
+            logged(11, PackedMove.encode(square(6, 4), square(7, 4), QUEEN), false),
+            logged(12, PackedMove.encode(square(6, 4), square(7, 4), ROOK), true)
+        ));
+
+        assertEquals("4R3/8/8/8/8/8/k7/4K3 b - - 0 1", cache.getFen());
+        assertEquals(12L, cache.getMoveSequence());
+        assertNull(cache.getPendingPromotionSquare());
+        assertEquals(1, cache.getMoveHistory().length);
+        assertEquals(ROOK, PackedMove.promotionType(cache.getMoveHistory()[0]));
+    }
+
+    @Test
+    void endsTheGameWhenTheLogDoes() {
+        // Fool's mate
+        MoveCache cache = RoomStateRebuilder.replay(snapshot(START, 0), List.of(
+            logged(1, square(1, 5), square(2, 5)),
+            logged(2, square(6, 4), square(4, 4)),
+            logged(3, square(1, 6), square(3, 6)),
+            logged(4, square(7, 3), square(3, 7))
+        ));
+
+        assertEquals(GameStatus.BLACK_WON, cache.getGameStatus());
+        assertEquals(4L, cache.getMoveSequence());
+        assertNull(cache.getWhitePlayerId());
+        assertNull(cache.getBlackPlayerId());
+    }
+
+    private static MoveCache snapshot(String fen, long moveSequence) {
+        return MoveCache.builder()
+            .fen(fen)
+            .captured(CapturedPieceUtil.NONE)
+            .whitePlayerId(UUID.randomUUID())
+            .blackPlayerId(UUID.randomUUID())
+            .gameStatus(GameStatus.IN_PROGRESS)
+            .moveSequence(moveSequence)
+            .build();
+    }
+
+    private static GameMove logged(long moveSequence, int from, int to) {
+        return logged(moveSequence, PackedMove.encode(from, to, NO_PIECE), false);
+    }
+
+    private static GameMove logged(long moveSequence, int move, boolean promotionChoice) {
+        return new GameMove("ROOM01", moveSequence, (short) move, promotionChoice, PLAYED_AT);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mychess.my_chess_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.mychess.my_chess_backend.utils.BitBoard.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FenCodecTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void roundTripsEveryField() {
+        List<String> fens = List.of(
+            START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+            "r3k2r/8/8/8/8/8/8/R3K2R b Kq - 5 20",
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 57",
+            "8/8/8/8/8/8/8/4K2k b - - 37 112"
+        );
+
+        for (String fen : fens) {
+            assertEquals(fen, new FenCodec().write(BitBoard.fromFen(fen)), fen);
+        }
+    }
+
+    @Test
+    void readsCastlingRightsEnPassantAndCounters() {
+        BitBoard board = BitBoard.fromFen("r3k2r/8/8/2pP4/8/8/8/R3K2R w Kq c6 7 42");
+
+        assertEquals(WHITE, board.getSideToMove());
+        assertEquals(WHITE_KINGSIDE | BLACK_QUEENSIDE, board.getCastlingRights());
+        assertEquals(square(5, 2), board.getEnPassantSquare());
+        assertEquals(7, board.getHalfmoveClock());
+        assertEquals(42, board.getFullmoveNumber());
+        assertEquals(piece(BLACK, ROOK), board.pieceAt(square(7, 0)));
+        assertEquals(piece(WHITE, KING), board.pieceAt(square(0, 4)));
+    }
+
+    @Test
+    void missingTrailingFieldsKeepTheirDefaults() {
+        BitBoard board = BitBoard.fromFen("4k3/8/8/8/8/8/8/4K3 b");
+
+        assertEquals(BLACK, board.getSideToMove());
+        assertEquals(0, board.getCastlingRights());
+        assertEquals(NO_SQUARE, board.getEnPassantSquare());
+        assertEquals(0, board.getHalfmoveClock());
+        assertEquals(1, board.getFullmoveNumber());
+        assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 0 1", board.toFen());
+    }
+
+    @Test
+    void movesUpdateTheStateFields() {
+        BitBoard board = BitBoard.fromFen(START);
+
+        board.makeMove(square(1, 4), square(3, 4), NO_PIECE);
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", board.toFen());
+
+        board.makeMove(square(7, 6), square(5, 5), NO_PIECE);
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", board.toFen());
+    }
+
+    @Test
+    void rookMovesDropTheirCastlingRight() {
+        BitBoard board = BitBoard.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+        board.makeMove(square(0, 7), square(3, 7), NO_PIECE);
+        assertEquals("r3k2r/8/8/8/7R/8/8/R3K3 b Qkq - 1 1", board.toFen());
+
+        board.makeMove(square(7, 0), square(0, 0), NO_PIECE);
+        assertEquals("4k2r/8/8/8/7R/8/8/r3K3 w k - 0 2", board.toFen());
+    }
+
+    @Test
+    void castlingMovesTheRookAndClearsBothRights() {
+        BitBoard board = BitBoard.fromFen("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 30");
+
+        board.makeMove(square(7, 4), square(7, 2), NO_PIECE);
+        assertEquals("2kr3r/8/8/8/8/8/8/R3K2R w KQ - 4 31", board.toFen());
+    }
+
+    @Test
+    void sideToMoveReadsOnlyTheSecondField() {
+        assertEquals(WHITE, FenCodec.sideToMove(START));
+        assertEquals(BLACK, FenCodec.sideToMove("4k3/8/8/8/8/8/8/4K3 b - - 0 1"));
+    }
+
+    @Test
+    void readingAgainReplacesThePreviousPosition() {
+        BitBoard board = BitBoard.fromFen(START);
+        String fen = "4k3/8/8/8/8/8/8/4K3 w - - 0 80";
+
+        board.loadFen(fen);
+        assertEquals(fen, board.toFen());
+        assertEquals(BitBoard.fromFen(fen).getHash(), board.getHash());
+    }
+}
@@ -0,0 +1,83 @@
+package com.mychess.my_chess_backend.utils;
+
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameOutcomeUtilsTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void checkmateWinsForTheSideThatGaveIt() {
+        // Fool's mate
+        assertEquals(GameStatus.BLACK_WON, evaluate("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3"));
+        // Back rank mate
+        assertEquals(GameStatus.WHITE_WON, evaluate("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"));
+    }
+
+    @Test
+    void stalemateIsADraw() {
+        assertEquals(GameStatus.DRAW, evaluate("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+    }
+
+    @Test
+    void checkWithAWayOutGoesOn() {
+        assertEquals(GameStatus.IN_PROGRESS, evaluate("R5k1/6pp/8/8/8/8/8/6K1 b - - 0 1"));
+        assertEquals(GameStatus.IN_PROGRESS, evaluate(START));
+    }
+
+    @Test
+    void fiftyMovesWithoutCaptureOrPawnMoveIsADraw() {
+        assertEquals(GameStatus.IN_PROGRESS, evaluate("4k3/8/8/8/8/8/8/R3K3 b - - 99 80"));
+        assertEquals(GameStatus.DRAW, evaluate("4k3/8/8/8/8/8/8/R3K3 b - - 100 80"));
+    }
+
+    @Test
+    void threefoldRepetitionIsADraw() {
+        BitBoard board = BitBoard.fromFen(START);
+
+        assertEquals(GameStatus.IN_PROGRESS, GameOutcomeUtils.evaluate(board, 2));
+        assertEquals(GameStatus.DRAW, GameOutcomeUtils.evaluate(board, 3));
+    }
+
+    @Test
+    void repetitionsOnlyCountPositionsWithTheSameSideToMove() {
+        assertEquals(1, GameOutcomeUtils.countRepetitions(new long[] { 7L }));
+        assertEquals(3, GameOutcomeUtils.countRepetitions(new long[] { 7L, 1L, 7L, 2L, 7L }));
+        // The earlier 7 had the other side to move
+        assertEquals(1, GameOutcomeUtils.countRepetitions(new long[] { 7L, 1L, 2L, 7L }));
+    }
+
+    @Test
+    void insufficientMaterialIsADraw() {
+        assertEquals(GameStatus.DRAW, evaluate("4k3/8/8/8/8/8/8/4K3 w - - 0 1"));
+        assertEquals(GameStatus.DRAW, evaluate("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1"));
+        assertEquals(GameStatus.DRAW, evaluate("4k3/8/8/8/8/8/8/1N2K3 w - - 0 1"));
+        // Bishops on c1 and f4 share the square color
+        assertEquals(GameStatus.DRAW, evaluate("4k3/8/8/8/5b2/8/8/2B1K3 w - - 0 1"));
+    }
+
+    @Test
+    void matingMaterialPlaysOn() {
+        // Bishops on c1 and f1 cover both colors
+        assertEquals(GameStatus.IN_PROGRESS, evaluate("4k3/8/8/8/8/8/8/2B1KB2 w - - 0 1"));
+        assertEquals(GameStatus.IN_PROGRESS, evaluate("4k3/8/8/8/8/8/8/1NB1K3 w - - 0 1"));
+        assertEquals(GameStatus.IN_PROGRESS, evaluate("4k3/8/8/8/8/8/8/R3K3 w - - 0 1"));
+        assertEquals(GameStatus.IN_PROGRESS, evaluate("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"));
+    }
+
+    @Test
+    void onlyResultsAreFinished() {
+        assertTrue(GameOutcomeUtils.isFinished(GameStatus.WHITE_WON));
+        assertTrue(GameOutcomeUtils.isFinished(GameStatus.BLACK_WON));
+        assertTrue(GameOutcomeUtils.isFinished(GameStatus.DRAW));
+        assertFalse(GameOutcomeUtils.isFinished(GameStatus.IN_PROGRESS));
+        assertFalse(GameOutcomeUtils.isFinished(GameStatus.WAITING));
+        assertFalse(GameOutcomeUtils.isFinished(null));
+    }
+
+    private static GameStatus evaluate(String fen) {
+        return GameOutcomeUtils.evaluate(BitBoard.fromFen(fen), 1);
+    }
+}
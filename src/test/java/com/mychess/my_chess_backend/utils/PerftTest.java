@@ -0,0 +1,45 @@
+package com.mychess.my_chess_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PerftTest {
+    // Deep enough to reach castling, en passant, promotions and discovered checks, shallow enough for every build
+    private static final int DEPTH = 3;
+
+    @Test
+    void matchesKnownNodeCounts() {
+        for (Perft.Position position : Perft.POSITIONS) {
+            BitBoard board = BitBoard.fromFen(position.fen());
+            for (int depth = 1; depth <= DEPTH; depth++) {
+                assertEquals(position.expectedNodes(depth), Perft.perft(board, depth), position.name() + " depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    void startPositionDepthFour() {
+        assertEquals(197_281, Perft.perft(BitBoard.fromFen(Perft.POSITIONS.get(0).fen()), 4));
+    }
+
+    @Test
+    void parallelSplitMatchesSingleThreaded() {
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            for (Perft.Position position : Perft.POSITIONS) {
+                BitBoard board = BitBoard.fromFen(position.fen());
+                assertEquals(position.expectedNodes(DEPTH), Perft.perftParallel(board, DEPTH, pool), position.name());
+            }
+        }
+    }
+
+    @Test
+    void leavesTheRootBoardUntouched() {
+        Perft.Position kiwipete = Perft.POSITIONS.get(1);
+        BitBoard board = BitBoard.fromFen(kiwipete.fen());
+        Perft.perft(board, 2);
+        assertEquals(kiwipete.fen(), board.toFen());
+    }
+}
@@ -0,0 +1,147 @@
+package com.mychess.my_chess_backend.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mychess.my_chess_backend.dtos.events.RoomEventDTO;
+import com.mychess.my_chess_backend.dtos.redis.MoveCache;
+import com.mychess.my_chess_backend.dtos.responses.room.PieceMovedResponseDTO;
+import com.mychess.my_chess_backend.dtos.shared.Move;
+import com.mychess.my_chess_backend.dtos.shared.MoveDetails;
+import com.mychess.my_chess_backend.dtos.shared.Piece;
+import com.mychess.my_chess_backend.dtos.shared.Position;
+import com.mychess.my_chess_backend.utils.enums.ChessPiece;
+import com.mychess.my_chess_backend.utils.enums.EventType;
+import com.mychess.my_chess_backend.utils.enums.GameStatus;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomBinaryCodecTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RoomBinaryCodec codec = new RoomBinaryCodec(objectMapper);
+
+    @Test
+    void roundTripsEveryMoveCacheField() {
+        MoveCache cache = new MoveCache()
+            .setFen("r3k2r/8/8/2pP4/8/8/8/R3K2R w Kq c6 7 42")
+            .setCaptured(CapturedPieceUtil.recordCapture(CapturedPieceUtil.recordCapture(CapturedPieceUtil.NONE, 0), 10))
+            .setWhitePlayerId(UUID.randomUUID())
+            .setBlackPlayerId(UUID.randomUUID())
+            .setGameStatus(GameStatus.PAUSED)
+            .setLastActivity(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000))
+            .setMoveSequence(83L)
+            .setPendingPromotionSquare(63)
+            .setZobristHash(-4_611_686_018_427_387_904L)
+            .setPositionHistory(new long[] { 1L, -2L, Long.MAX_VALUE })
+            .setMoveHistory(new short[] { 0, (short) PackedMove.encode(52, 60, BitBoard.QUEEN), Short.MAX_VALUE });
+
+        byte[] bytes = codec.encode(cache);
+
+        assertTrue(RoomBinaryCodec.isBinary(bytes));
+        assertEquals(cache, codec.decode(bytes));
+    }
+
+    @Test
+    void roundTripsAnEmptyMoveCache() {
+        MoveCache decoded = (MoveCache) codec.decode(codec.encode(new MoveCache()));
+
+        // A missing sequence is stored as 0, what the commit script compares against
+        assertEquals(new MoveCache().setMoveSequence(0L), decoded);
+        assertNull(decoded.getFen());
+        assertNull(decoded.getWhitePlayerId());
+        assertNull(decoded.getGameStatus());
+        assertNull(decoded.getLastActivity());
+        assertNull(decoded.getPendingPromotionSquare());
+        assertNull(decoded.getZobristHash());
+        assertNull(decoded.getPositionHistory());
+        assertNull(decoded.getMoveHistory());
+    }
+
+    @Test
+    void keepsEmptyHistoriesApartFromMissingOnes() {
+        MoveCache cache = new MoveCache().setMoveSequence(0L).setPositionHistory(new long[0]).setMoveHistory(new short[0]);
+
+        assertEquals(cache, codec.decode(codec.encode(cache)));
+    }
+
+    @Test
+    void keepsTheMoveSequenceWhereTheCommitScriptReadsIt() {
+        byte[] bytes = codec.encode(new MoveCache().setMoveSequence(1_234_567L).setFen("8/8/8/8/8/8/8/4K2k w - - 0 1"));
+
+        assertEquals(RoomBinaryCodec.MAGIC, bytes[0]);
+        assertEquals(1_234_567L, ByteBuffer.wrap(bytes, RoomBinaryCodec.MOVE_SEQUENCE_OFFSET, Long.BYTES).getLong());
+    }
+
+    @Test
+    void legacyCapturedPiecesSurviveTheBinaryFormat() throws Exception {
+        MoveCache legacy = objectMapper.readValue(
+            "{\"fen\":\"8/8/8/8/8/8/8/4K2k w - - 0 1\",\"capturedPieces\":\"r1n0b2q0p3k0/R0N1B0Q1P0K0\",\"moveSequence\":5}",
+            MoveCache.class
+        );
+        long expected = CapturedPieceUtil.parse("r1n0b2q0p3k0/R0N1B0Q1P0K0");
+
+        assertEquals(expected, legacy.getCaptured());
+        MoveCache decoded = (MoveCache) codec.decode(codec.encode(legacy));
+        assertEquals(expected, decoded.getCaptured());
+        assertEquals("r1n0b2q0p3k0/R0N1B0Q1P0K0", CapturedPieceUtil.toCapturedString(decoded.getCaptured()));
+    }
+
+    @Test
+    void roundTripsAMoveEventWithEveryField() {
+        Piece pawn = new Piece("w-p-1-4", (byte) 4, (byte) 6, "white", "pawn", Boolean.FALSE, true);
+        Piece rook = new Piece("b-r-0-5", (byte) 5, (byte) 7, "black", "rook", null, false);
+        MoveDetails details = new MoveDetails(true, rook, new Piece().setType("queen"), true, ChessPiece.QUEEN, "kingside", "check", false);
+        Move move = new Move(pawn, new Position((byte) 0, (byte) 5), details, 41L);
+        PieceMovedResponseDTO pieceMoved = new PieceMovedResponseDTO(move, (short) PackedMove.encode(52, 61, BitBoard.QUEEN), "5Q2/8/8/8/8/8/8/4K2k b - - 0 21", 42L);
+        RoomEventDTO event = new RoomEventDTO("AB12CD", "server-1", EventType.MOVE, pieceMoved, 1_700_000_000_123L);
+
+        assertEquals(event, codec.decodeRoomEvent(codec.encode(event)));
+        assertEquals(pieceMoved, codec.decode(codec.encode(pieceMoved)));
+    }
+
+    @Test
+    void roundTripsAMoveEventWithNulls() {
+        PieceMovedResponseDTO sparse = new PieceMovedResponseDTO(
+            new Move(new Piece(), null, new MoveDetails(), null),
+            null,
+            null,
+            null
+        );
+        RoomEventDTO event = new RoomEventDTO(null, null, null, sparse, null);
+
+        assertEquals(event, codec.decodeRoomEvent(codec.encode(event)));
+        assertEquals(new PieceMovedResponseDTO(), codec.decode(codec.encode(new PieceMovedResponseDTO())));
+    }
+
+    @Test
+    void roundTripsMessageJsonAndEmptyPayloads() {
+        RoomEventDTO message = new RoomEventDTO("AB12CD", "server-1", EventType.MESSAGE, "Opponent Joined ! ♞", 1L);
+        RoomEventDTO update = new RoomEventDTO("AB12CD", "server-2", EventType.ROOM_UPDATE, Map.of("code", "AB12CD", "moveSequence", 3), 2L);
+        RoomEventDTO empty = new RoomEventDTO("AB12CD", "server-3", EventType.ROOM_UPDATE, null, 3L);
+
+        assertEquals(message, codec.decodeRoomEvent(codec.encode(message)));
+        assertEquals(update, codec.decodeRoomEvent(codec.encode(update)));
+        assertEquals(empty, codec.decodeRoomEvent(codec.encode(empty)));
+    }
+
+    @Test
+    void rejectsValuesItCannotRead() {
+        byte[] bytes = codec.encode(new MoveCache());
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("{\"fen\":null}".getBytes()));
+
+        byte[] newerVersion = bytes.clone();
+        newerVersion[1] = RoomBinaryCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(newerVersion));
+
+        byte[] unknownType = bytes.clone();
+        unknownType[2] = 99;
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(unknownType));
+
+        assertThrows(IllegalArgumentException.class, () -> codec.encode("not a room value"));
+    }
+}
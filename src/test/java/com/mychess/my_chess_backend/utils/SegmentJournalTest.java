@@ -0,0 +1,231 @@
+package com.mychess.my_chess_backend.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentJournalTest {
+    // Length and CRC in front of every record
+    private static final int HEADER_BYTES = 8;
+    // Two 20-byte records per segment
+    private static final int SMALL_SEGMENT = 2 * (HEADER_BYTES + 20) + 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsRecordsInOrderWithoutConsumingThem() throws IOException {
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024, 4)) {
+            assertTrue(journal.isEmpty());
+            append(journal, "first", "second", "third");
+
+            assertEquals(List.of("first", "second"), strings(journal.read(2)));
+            assertEquals(List.of("first", "second", "third"), strings(journal.read(10)));
+            assertEquals(3, journal.pendingRecords());
+            assertFalse(journal.isEmpty());
+        }
+    }
+
+    @Test
+    void commitConsumesABatch() throws IOException {
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024, 4)) {
+            append(journal, "first", "second", "third");
+
+            journal.commit(journal.read(2));
+            assertEquals(List.of("third"), strings(journal.read(10)));
+            assertEquals(1, journal.pendingRecords());
+
+            journal.commit(journal.read(10));
+            assertTrue(journal.isEmpty());
+            assertEquals(0, journal.pendingRecords());
+            assertTrue(journal.read(10).records().isEmpty());
+        }
+    }
+
+    @Test
+    void rollsAcrossSegmentsAndDeletesConsumedOnes() throws IOException {
+        try (SegmentJournal journal = new SegmentJournal(directory, SMALL_SEGMENT, 8)) {
+            for (int i = 0; i < 5; i++) { journal.append(record(i)); }
+            assertEquals(3, journal.segmentCount());
+            assertEquals(3, segmentFiles());
+
+            assertEquals(List.of(name(0), name(1), name(2), name(3), name(4)), strings(journal.read(10)));
+
+            // Ends inside the second segment, so only the first is gone
+            journal.commit(journal.read(3));
+            assertEquals(2, journal.segmentCount());
+            assertEquals(2, segmentFiles());
+
+            journal.commit(journal.read(10));
+            assertEquals(1, journal.segmentCount());
+            assertEquals(1, segmentFiles());
+            assertTrue(journal.isEmpty());
+
+            journal.append(record(5));
+            assertEquals(List.of(name(5)), strings(journal.read(10)));
+        }
+    }
+
+    @Test
+    void refusesAppendsOnceFull() throws IOException {
+        try (SegmentJournal journal = new SegmentJournal(directory, SMALL_SEGMENT, 2)) {
+            for (int i = 0; i < 4; i++) { journal.append(record(i)); }
+
+            assertThrows(IllegalStateException.class, () -> journal.append(record(4)));
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[SMALL_SEGMENT]));
+
+            // Consuming the first segment makes room again
+            journal.commit(journal.read(3));
+            journal.append(record(4));
+            assertEquals(List.of(name(3), name(4)), strings(journal.read(10)));
+        }
+    }
+
+    @Test
+    void reopeningRecoversUncommittedRecords() throws IOException {
+        try (SegmentJournal journal = new SegmentJournal(directory, SMALL_SEGMENT, 8)) {
+            for (int i = 0; i < 5; i++) { journal.append(record(i)); }
+            // Ends inside the second segment: the first is deleted, the second is kept whole
+            journal.commit(journal.read(3));
+            journal.flush();
+        }
+
+        try (SegmentJournal journal = new SegmentJournal(directory, SMALL_SEGMENT, 8)) {
+            // Consumption only sticks once a segment is deleted, so record 2 comes back
+            assertEquals(3, journal.recoveredRecords());
+            assertEquals(3, journal.pendingRecords());
+
+            // New records go to a fresh segment behind the recovered ones
+            journal.append(record(5));
+            assertEquals(List.of(name(2), name(3), name(4), name(5)), strings(journal.read(10)));
+
+            journal.commit(journal.read(10));
+            assertTrue(journal.isEmpty());
+            assertEquals(1, segmentFiles());
+        }
+
+        try (SegmentJournal journal = new SegmentJournal(directory, SMALL_SEGMENT, 8)) {
+            // The segment the last batch ended in survives, and with it the records read from it
+            assertEquals(1, journal.recoveredRecords());
+            assertEquals(List.of(name(5)), strings(journal.read(10)));
+        }
+    }
+
+    @Test
+    void refusesADirectoryAnotherJournalHolds() throws IOException {
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024, 4)) {
+            append(journal, "first");
+
+            assertThrows(IllegalStateException.class, () -> new SegmentJournal(directory, 1024, 4));
+            assertEquals(List.of("first"), strings(journal.read(10)));
+        }
+
+        // Free again once closed
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024, 4)) {
+            assertEquals(1, journal.recoveredRecords());
+        }
+    }
+
+    @Test
+    void recoveryStopsAtATornWrite() throws IOException {
+        Path segment;
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024, 4)) {
+            append(journal, "first", "second");
+            segment = onlySegment();
+        }
+
+        // A third record whose length made it to disk but whose payload did not
+        int end = 2 * HEADER_BYTES + "first".length() + "second".length();
+        write(segment, end, ByteBuffer.allocate(HEADER_BYTES).putInt(6).putInt(0x12345678).array());
+
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024, 4)) {
+            assertEquals(2, journal.recoveredRecords());
+
+            journal.append("third".getBytes(StandardCharsets.UTF_8));
+            assertEquals(List.of("first", "second", "third"), strings(journal.read(10)));
+        }
+    }
+
+    @Test
+    void recoveryStopsAtACorruptedRecord() throws IOException {
+        Path segment;
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024, 4)) {
+            append(journal, "first", "second", "third");
+            segment = onlySegment();
+        }
+
+        // Flips a payload byte of the second record, so its checksum no longer matches
+        write(segment, 2 * HEADER_BYTES + "first".length(), new byte[] { 'S' });
+
+        try (SegmentJournal journal = new SegmentJournal(directory, 1024, 4)) {
+            assertEquals(1, journal.recoveredRecords());
+            assertEquals(List.of("first"), strings(journal.read(10)));
+        }
+    }
+
+    @Test
+    void recoveryIgnoresALengthPastTheSegmentEnd() throws IOException {
+        Path segment;
+        try (SegmentJournal journal = new SegmentJournal(directory, 64, 4)) {
+            append(journal, "first");
+            segment = onlySegment();
+        }
+
+        write(segment, HEADER_BYTES + "first".length(), ByteBuffer.allocate(4).putInt(1_000).array());
+
+        try (SegmentJournal journal = new SegmentJournal(directory, 64, 4)) {
+            assertEquals(1, journal.recoveredRecords());
+            assertEquals(List.of("first"), strings(journal.read(10)));
+        }
+    }
+
+    private static void append(SegmentJournal journal, String... records) throws IOException {
+        for (String record : records) {
+            journal.append(record.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // 20 bytes each
+    private static byte[] record(int i) {
+        return name(i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String name(int i) {
+        return String.format("record-%013d", i);
+    }
+
+    private static List<String> strings(SegmentJournal.Batch batch) {
+        return batch.records().stream().map(record -> new String(record, StandardCharsets.UTF_8)).toList();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(file -> file.getFileName().toString().endsWith(".seg")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private static void write(Path file, int position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+}